@@ -24,6 +24,7 @@ public class CorsConfig {
                         .allowedOrigins(allowedOrigin)
                         .allowedMethods(allowedMethods)
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Next-Cursor")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,73 @@
+package com.hotel.config;
+
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Runs right before V4, whose EXCLUDE constraint would abort on ACTIVE bookings of one room that overlap.
+// The earliest booking of each clash keeps the room; later ones are set to CONFLICT (outside the
+// constraint's WHERE status = 'ACTIVE') and logged, for staff to move or refund. Nothing is deleted.
+// A Flyway callback rather than an edit to V4, so databases that already ran V4 keep a valid checksum.
+@Component
+public class OverlappingStayCheck implements Callback {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverlappingStayCheck.class);
+
+    static final String CONFLICT_STATUS = "CONFLICT";
+
+    private static final String FLAG_OVERLAPS = """
+        UPDATE booking b SET status = 'CONFLICT'
+        WHERE b.status = 'ACTIVE'
+          AND EXISTS (
+            SELECT 1 FROM booking o
+            WHERE o.room_id = b.room_id AND o.status = 'ACTIVE' AND o.id < b.id
+              AND o.check_in < b.check_out AND o.check_out > b.check_in
+          )
+        RETURNING b.booking_id, b.room_id, b.check_in, b.check_out
+    """;
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        if (event != Event.BEFORE_EACH_MIGRATE) {
+            return false;
+        }
+        MigrationInfo migration = context.getMigrationInfo();
+        return migration != null && migration.getVersion() != null && "4".equals(migration.getVersion().getVersion());
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        int flagged = 0;
+        try (Statement statement = context.getConnection().createStatement();
+             ResultSet rows = statement.executeQuery(FLAG_OVERLAPS)) {
+            while (rows.next()) {
+                flagged++;
+                logger.warn("Booking {} overlaps an earlier ACTIVE booking of room {} ({} - {}); set to {}",
+                        rows.getString(1), rows.getLong(2), rows.getDate(3), rows.getDate(4), CONFLICT_STATUS);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not check bookings for overlapping stays", e);
+        }
+        if (flagged > 0) {
+            logger.warn("{} overlapping bookings set to {} before adding the no-overlap constraint", flagged, CONFLICT_STATUS);
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "overlapping-stay-check";
+    }
+}
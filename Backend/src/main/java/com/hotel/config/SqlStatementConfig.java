@@ -0,0 +1,29 @@
+package com.hotel.config;
+
+import com.hotel.filter.SqlStatementCountFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SqlStatementConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<Filter> sqlStatementCountFilter(MeterRegistry meterRegistry,
+                                                                  @Value("${app.sql.statement-budget:10}") int statementBudget) {
+        FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new SqlStatementCountFilter(meterRegistry, statementBudget));
+        registrationBean.addUrlPatterns("/api/*");
+        return registrationBean;
+    }
+}
@@ -0,0 +1,46 @@
+package com.hotel.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread between start() and stop().
+// Registered as the session factory's statement inspector (SqlStatementConfig); SQL passes through unchanged.
+// Counts nest: a test can wrap a request that SqlStatementCountFilter also counts, and both see every statement.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Count> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Count(CURRENT.get()));
+    }
+
+    // Statements since the matching start(), or -1 when counting was not started on this thread
+    public static int stop() {
+        Count count = CURRENT.get();
+        if (count == null) {
+            return -1;
+        }
+        if (count.outer != null) {
+            CURRENT.set(count.outer);
+        } else {
+            CURRENT.remove();
+        }
+        return count.statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Count count = CURRENT.get(); count != null; count = count.outer) {
+            count.statements++;
+        }
+        return sql;
+    }
+
+    private static final class Count {
+        private final Count outer;
+        private int statements;
+
+        Count(Count outer) {
+            this.outer = outer;
+        }
+    }
+}
@@ -1,38 +1,55 @@
 package com.hotel.controller;
 
 import com.hotel.dto.BookingSummaryDTO;
+import com.hotel.dto.RoomAvailabilityDTO;
 import com.hotel.model.Booking;
 import com.hotel.model.Branch;
+import com.hotel.model.RoomType;
 import com.hotel.repository.BranchRepository;
+import com.hotel.service.AvailabilityService;
 import com.hotel.service.BookingService;
+import com.hotel.service.BranchService;
 import com.hotel.service.EmailService;
-import com.hotel.service.PdfService;
+import com.hotel.service.ReceiptExportService;
+import com.hotel.service.ReceiptStore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api")
 public class BookingController {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+    private static final int MAX_CALENDAR_DAYS = 365;
 
     @Autowired private BookingService bookingService;
+    @Autowired private AvailabilityService availabilityService;
     @Autowired private BranchRepository branchRepository;
-    @Autowired private PdfService pdfService;
+    @Autowired private BranchService branchService;
+    @Autowired private ReceiptStore receiptStore;
+    @Autowired private ReceiptExportService receiptExportService;
     @Autowired private EmailService emailService;
 
     @GetMapping("/availability")
@@ -46,17 +63,13 @@ public class BookingController {
         LocalDate checkInDate = LocalDate.parse(checkIn);
         LocalDate checkOutDate = LocalDate.parse(checkOut);
 
-        boolean available = bookingService.checkAvailability(branchId, roomType, checkInDate, checkOutDate);
-        Branch branch = branchRepository.findById(branchId).orElseThrow();
-
-        int totalRooms = (int) branch.getRooms().stream()
-                .filter(r -> r.getRoomType().name().equalsIgnoreCase(roomType))
-                .count();
+        RoomType type = RoomType.valueOf(roomType.toUpperCase());
+        boolean available = availabilityService.hasAvailableRoom(branchId, type, checkInDate, checkOutDate);
 
         Map<String, Object> response = new HashMap<>();
         response.put("available", available);
-        response.put("totalRooms", totalRooms);
-        response.put("bookedRooms", bookingService.getBookedRooms(branchId, roomType, checkInDate, checkOutDate));
+        response.put("totalRooms", availabilityService.getTotalRooms(branchId, type));
+        response.put("bookedRooms", availabilityService.getBookedRooms(branchId, type, checkInDate, checkOutDate));
 
         if (!available) {
             response.put("message", "Not available, consider changing filters");
@@ -65,6 +78,32 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
 
+    // ✅ Whole search grid in one call: every branch × room type for the given stay
+    @GetMapping("/availability/matrix")
+    public ResponseEntity<List<RoomAvailabilityDTO>> getAvailabilityMatrix(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut) {
+
+        logger.info("Building availability matrix for {} - {}", checkIn, checkOut);
+        return ResponseEntity.ok(availabilityService.getAvailabilityMatrix(checkIn, checkOut));
+    }
+
+    // ✅ Month view: free rooms for each night of a window of up to 365 days
+    @GetMapping("/availability/calendar")
+    public ResponseEntity<?> getAvailabilityCalendar(
+            @RequestParam Long branchId,
+            @RequestParam String roomType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "31") int days) {
+
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            return ResponseEntity.badRequest().body("days must be between 1 and " + MAX_CALENDAR_DAYS);
+        }
+        logger.info("Building availability calendar for branchId: {}, roomType: {}, from: {}, days: {}", branchId, roomType, from, days);
+        return ResponseEntity.ok(availabilityService.getAvailabilityCalendar(
+                branchId, RoomType.valueOf(roomType.toUpperCase()), from, days));
+    }
+
     // ✅ Only reads booking if Stripe session already handled it
     @GetMapping("/booking/confirm")
     public ResponseEntity<?> confirmBooking(@RequestParam("session_id") String sessionId) {
@@ -79,16 +118,48 @@ public class BookingController {
     }
 
     @GetMapping("/booking/{bookingId}/receipt")
-    public ResponseEntity<byte[]> getBookingReceipt(@PathVariable String bookingId) {
+    public ResponseEntity<Resource> getBookingReceipt(@PathVariable String bookingId, WebRequest webRequest) {
         Booking booking = bookingService.getBookingWithRoomAndBranch(bookingId);
-        byte[] pdf = pdfService.generateReceipt(booking);
+        if (booking == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + receiptStore.fingerprint(booking) + "\"";
+        // Receipts change when the booking does (e.g. cancellation), so clients revalidate every time
+        CacheControl cacheControl = CacheControl.maxAge(0, TimeUnit.SECONDS).cachePrivate().mustRevalidate();
 
+        // RFC 9110 If-None-Match: weak comparison and lists of tags, not just an exact string match
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        // Rendered once per booking version, then streamed from disk
+        Resource pdf = new FileSystemResource(receiptStore.receiptFor(booking, etag.substring(1, etag.length() - 1)));
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=receipt_" + bookingId + ".pdf")
                 .contentType(MediaType.APPLICATION_PDF)
+                .eTag(etag)
+                .cacheControl(cacheControl)
                 .body(pdf);
     }
 
+    // ✅ All receipts of a branch for bookings created in [from, to], streamed as one ZIP
+    @GetMapping("/admin/receipts/export")
+    public ResponseEntity<?> exportReceipts(
+            @RequestParam Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body("'to' must not be before 'from'");
+        }
+        logger.info("Exporting receipts for branch {} from {} to {}", branchId, from, to);
+        StreamingResponseBody body = out -> receiptExportService.exportZip(branchId, from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=receipts_branch" + branchId + "_" + from + "_" + to + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
     @PostMapping("/cancel")
     public ResponseEntity<?> cancelBooking(@RequestParam String bookingId) {
         logger.info("Request to cancel booking ID: {}", bookingId);
@@ -115,16 +186,19 @@ public class BookingController {
 
     @GetMapping("/employee/branches/rooms")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<List<Branch>> getBranchRoomCounts() {
-        logger.info("Fetching branch room counts");
-        return ResponseEntity.ok(branchRepository.findAll());
+    public ResponseEntity<List<Branch>> getBranchRoomCounts(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = KeysetPaging.DEFAULT_LIMIT) int limit) {
+        logger.info("Fetching branch room counts after id: {}", afterId);
+        int pageSize = KeysetPaging.clampLimit(limit);
+        return KeysetPaging.page(branchService.getBranchPage(afterId, pageSize), pageSize, Branch::getId);
     }
 
     @PostMapping("/admin/branch")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Branch> addBranch(@RequestBody Branch branch) {
         logger.info("Adding new branch: {}", branch.getName());
-        return ResponseEntity.ok(branchRepository.save(branch));
+        return ResponseEntity.ok(branchService.saveBranch(branch));
     }
 
     // DTO reserved for future manual booking flow
@@ -15,10 +15,17 @@ public class BranchController {
     @Autowired
     private BranchService branchService;
 
-    //  Used by RoomFilter page to get all branch options
+    //  Used by RoomFilter page to get all branch options; keyset paged (next page id in X-Next-Cursor)
+    //  only when afterId or limit is given, so existing callers still get every branch
     @GetMapping("/all")
-    public List<Branch> getAllBranches() {
-        return branchService.getAllBranches();
+    public ResponseEntity<List<Branch>> getAllBranches(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(branchService.getAllBranches());
+        }
+        int pageSize = KeysetPaging.clampLimit(limit);
+        return KeysetPaging.page(branchService.getBranchPage(afterId != null ? afterId : 0L, pageSize), pageSize, Branch::getId);
     }
 
     //  Fetch a single branch by ID (optional, helpful for BookingPage if needed)
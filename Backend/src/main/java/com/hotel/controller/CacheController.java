@@ -0,0 +1,30 @@
+package com.hotel.controller;
+
+import com.hotel.service.EntityCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class CacheController {
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    //  Second-level / query cache hits and misses per region
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(entityCacheService.getStats());
+    }
+
+    @PostMapping("/evict")
+    public ResponseEntity<String> evictAll() {
+        entityCacheService.evictAll();
+        return ResponseEntity.ok("Cache cleared");
+    }
+}
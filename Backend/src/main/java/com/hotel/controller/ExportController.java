@@ -0,0 +1,45 @@
+package com.hotel.controller;
+
+import com.hotel.service.BranchService;
+import com.hotel.service.RoomService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Whole-table exports; admin only, since each streams the full inventory
+@RestController
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BranchService branchService;
+
+    //  Every room as one streamed JSON array
+    @GetMapping("/rooms")
+    public ResponseEntity<StreamingResponseBody> exportRooms() {
+        logger.info("Admin export of all rooms");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(roomService::exportRooms);
+    }
+
+    //  Every branch as one streamed JSON array
+    @GetMapping("/branches")
+    public ResponseEntity<StreamingResponseBody> exportBranches() {
+        logger.info("Admin export of all branches");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(branchService::exportBranches);
+    }
+}
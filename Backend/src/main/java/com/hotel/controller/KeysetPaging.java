@@ -0,0 +1,34 @@
+package com.hotel.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Cursor (keyset) paging for list endpoints: the body stays a plain JSON array and the
+// id to pass as afterId for the next page is returned in the X-Next-Cursor header.
+final class KeysetPaging {
+
+    static final String DEFAULT_LIMIT = "100";
+    static final int MAX_LIMIT = 500;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetPaging() {}
+
+    static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // For endpoints where limit is optional (absent together with afterId means unpaged)
+    static int clampLimit(Integer limit) {
+        return clampLimit(limit != null ? limit : Integer.parseInt(DEFAULT_LIMIT));
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,40 @@
+package com.hotel.controller;
+
+import com.hotel.model.OutboxEvent;
+import com.hotel.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class OutboxController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxController.class);
+
+    @Autowired
+    private OutboxService outboxService;
+
+    //  Receipt emails / webhooks that ran out of attempts
+    @GetMapping("/dead")
+    public ResponseEntity<List<OutboxEvent>> getDeadLetters() {
+        return ResponseEntity.ok(outboxService.getDeadLetters());
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<?> replay(@PathVariable Long id) {
+        logger.info("Admin replay of outbox event: {}", id);
+        try {
+            return ResponseEntity.ok(outboxService.replay(id));
+        } catch (RuntimeException e) {
+            logger.error("Outbox replay failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
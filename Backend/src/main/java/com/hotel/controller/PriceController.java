@@ -1,14 +1,20 @@
 package com.hotel.controller;
 
 import com.hotel.model.Price;
-import com.hotel.repository.PriceRepository;
+import com.hotel.model.RoomType;
+import com.hotel.service.PriceCatalog;
+import com.hotel.service.RateEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -17,12 +23,60 @@ public class PriceController {
     private static final Logger logger = LoggerFactory.getLogger(PriceController.class);
 
     @Autowired
-    private PriceRepository priceRepository;
+    private PriceCatalog priceCatalog;
 
+    @Autowired
+    private RateEngine rateEngine;
+
+    // ✅ Served from the in-memory catalog
     @GetMapping("/price")
     public ResponseEntity<List<Price>> getAllPrices() {
-        logger.info("Fetching all room prices");
-        List<Price> prices = priceRepository.findAll();
-        return ResponseEntity.ok(prices);
+        logger.debug("Fetching all room prices");
+        return ResponseEntity.ok(priceCatalog.getPrices());
+    }
+
+    // ✅ Room price for a stay, as charged at checkout (before taxes and fees)
+    @GetMapping("/price/quote")
+    public ResponseEntity<?> quote(@RequestParam Long branchId,
+                                   @RequestParam String roomType,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            return ResponseEntity.badRequest().body("checkOut must be after checkIn");
+        }
+        try {
+            double price = rateEngine.quote(branchId, RoomType.valueOf(roomType.toUpperCase()), checkIn, checkOut);
+            Map<String, Object> response = new HashMap<>();
+            response.put("branchId", branchId);
+            response.put("roomType", roomType.toUpperCase());
+            response.put("checkIn", checkIn);
+            response.put("checkOut", checkOut);
+            response.put("price", price);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            logger.error("Quote failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Body: {"pricePerNight": 4200}; new quotes use it as soon as this returns
+    @PutMapping("/admin/price/{roomType}")
+    public ResponseEntity<?> updatePrice(@PathVariable String roomType, @RequestBody Map<String, Object> payload) {
+        try {
+            RoomType type = RoomType.valueOf(roomType.toUpperCase());
+            Object value = payload.get("pricePerNight");
+            if (value == null) {
+                return ResponseEntity.badRequest().body("pricePerNight is required");
+            }
+            double pricePerNight = Double.parseDouble(value.toString());
+            if (!(pricePerNight > 0)) {
+                return ResponseEntity.badRequest().body("pricePerNight must be positive");
+            }
+            logger.info("Admin price update: {} -> {}", type, pricePerNight);
+            return ResponseEntity.ok(priceCatalog.updatePrice(type, pricePerNight));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid price update: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid room type or price");
+        }
     }
-} 
+}
@@ -3,6 +3,7 @@ package com.hotel.controller;
 import com.hotel.dto.RoomDTO;
 import com.hotel.model.Room;
 import com.hotel.model.RoomType;
+import com.hotel.service.AvailabilityService;
 import com.hotel.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,6 +23,9 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     @GetMapping("/{id}")
     public ResponseEntity<RoomDTO> getRoomById(@PathVariable Long id) {
         Room room = roomService.getRoomById(id);
@@ -35,18 +40,26 @@ public class RoomController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut
     ) {
         RoomType roomTypeEnum = RoomType.valueOf(type.toUpperCase());
-        return roomService.getAvailableRooms(branchId, roomTypeEnum, checkIn, checkOut)
+        return availabilityService.getAvailableRooms(branchId, roomTypeEnum, checkIn, checkOut)
                 .stream()
                 .map(RoomDTO::new)
                 .collect(Collectors.toList());
     }
 
+    // ✅ Every matching room, or keyset paged when afterId or limit is given: pass the X-Next-Cursor header back as afterId for the next page
     @GetMapping("/all")
-    public List<RoomDTO> getAllRooms() {
-        return roomService.getAllRooms()
-                .stream()
-                .map(RoomDTO::new)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<RoomDTO>> getAllRooms(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) String type
+    ) {
+        RoomType roomType = type != null ? RoomType.valueOf(type.toUpperCase()) : null;
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(roomService.getAllRooms(branchId, roomType));
+        }
+        int pageSize = KeysetPaging.clampLimit(limit);
+        return KeysetPaging.page(roomService.getRoomPage(afterId != null ? afterId : 0L, pageSize, branchId, roomType), pageSize, RoomDTO::getId);
     }
 
     // ✅ Used by FilterPage — returns first match
@@ -57,7 +70,9 @@ public class RoomController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut
     ) {
-        Room room = roomService.findAvailableRoom(branchName, type, checkIn, checkOut);
-        return ResponseEntity.ok(Map.of("id", room != null ? room.getId() : null));
+        Long roomId = availabilityService.findAvailableRoomId(branchName, RoomType.valueOf(type.toUpperCase()), checkIn, checkOut);
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", roomId);
+        return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.hotel.controller;
 
 import com.hotel.model.RoomType;
-import com.hotel.service.RoomService;
+import com.hotel.service.AvailabilityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -14,7 +14,7 @@ import java.time.LocalDate;
 public class RoomFilterController {
 
     @Autowired
-    private RoomService roomService;
+    private AvailabilityService availabilityService;
 
     @GetMapping("/check")
     public ResponseEntity<Boolean> checkRoomAvailability(
@@ -23,7 +23,7 @@ public class RoomFilterController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut
     ) {
-        boolean isAvailable = roomService.isRoomAvailable(branchId, type, checkIn, checkOut);
+        boolean isAvailable = availabilityService.hasAvailableRoom(branchId, type, checkIn, checkOut);
         return ResponseEntity.ok(isAvailable);
     }
 }
@@ -2,10 +2,13 @@ package com.hotel.controller;
 
 import com.hotel.model.Booking;
 import com.hotel.service.BookingService;
+import com.hotel.service.CheckoutSessionCache;
 import com.hotel.service.StripeService;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -24,11 +27,15 @@ public class StripeController {
     @Autowired
     private StripeService stripeService;
 
+    @Autowired
+    private CheckoutSessionCache checkoutSessionCache;
+
     @Value("${app.client.url}")
     private String clientBaseUrl;
 
     @PostMapping("/create-session")
-    public Map<String, Object> createStripeSession(@RequestBody Map<String, Object> payload) throws StripeException {
+    public ResponseEntity<Map<String, Object>> createStripeSession(@RequestBody Map<String, Object> payload,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws StripeException {
         String customerName = payload.get("customerName").toString();
         String phoneNumber = payload.get("phoneNumber").toString();
         String email = payload.get("email").toString();
@@ -38,6 +45,30 @@ public class StripeController {
 
         LocalDate checkIn = LocalDate.parse(payload.get("checkIn").toString());
         LocalDate checkOut = LocalDate.parse(payload.get("checkOut").toString());
+        // Repeats of the same request (double click, refresh) get the session already created for it
+        String requestKey = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? "key:" + email.trim().toLowerCase() + ":" + idempotencyKey
+                : "req:" + roomId + ":" + checkIn + ":" + checkOut + ":" + email.trim().toLowerCase();
+        // A reused Idempotency-Key must describe the same stay, or it would be handed another stay's session
+        String fingerprint = roomId + ":" + checkIn + ":" + checkOut;
+
+        Map<String, Object> response = new HashMap<>();
+        String sessionId;
+        try {
+            sessionId = checkoutSessionCache.getOrCreate(requestKey, fingerprint,
+                    () -> createSession(customerName, phoneNumber, email, roomId, roomType, branchId, checkIn, checkOut, idempotencyKey));
+        } catch (CheckoutSessionCache.ConflictingRequestException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        // Step 6: Return session ID
+        response.put("sessionId", sessionId);
+        return ResponseEntity.ok(response);
+    }
+
+    private Session createSession(String customerName, String phoneNumber, String email, Long roomId, String roomType,
+                                  Long branchId, LocalDate checkIn, LocalDate checkOut, String idempotencyKey) {
         LocalTime bookingTime = LocalTime.now().withNano(0);
 
         // Step 1: Prepare temporary booking
@@ -45,7 +76,7 @@ public class StripeController {
                 customerName, phoneNumber, email, roomId, checkIn, checkOut, bookingTime
         );
 
-        // Step 2: Price calculation
+        // Step 2: Price calculation (room price comes from the rate calendar via prepareTempBooking)
         double basePrice = tempBooking.getPrice();
         int nights = (int) java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut);
         double tax = basePrice * 0.18;
@@ -67,25 +98,29 @@ public class StripeController {
         String successUrl = clientBaseUrl + "/confirmation?session_id={CHECKOUT_SESSION_ID}";
         String cancelUrl = clientBaseUrl + "/payment/cancelled";
 
-        // Step 5: Create Stripe session
-        Session session = stripeService.createStripeSession(
-                productName,
-                finalAmount,
-                customerName,
-                email,
-                phoneNumber,
-                roomId,
-                checkIn.toString(),
-                checkOut.toString(),
-                bookingTime.toString(),
-                successUrl,
-                cancelUrl,
-                productDescription
-        );
-
-        // Step 6: Return session ID
-        Map<String, Object> response = new HashMap<>();
-        response.put("sessionId", session.getId());
-        return response;
+        // Step 5: Create Stripe session (release the room hold if Stripe refuses)
+        Session session;
+        try {
+            session = stripeService.createStripeSession(
+                    productName,
+                    finalAmount,
+                    customerName,
+                    email,
+                    phoneNumber,
+                    roomId,
+                    checkIn.toString(),
+                    checkOut.toString(),
+                    bookingTime.toString(),
+                    successUrl,
+                    cancelUrl,
+                    productDescription,
+                    basePrice,
+                    idempotencyKey
+            );
+        } catch (RuntimeException e) {
+            bookingService.releaseTempBooking(tempBooking);
+            throw e;
+        }
+        return session;
     }
 }
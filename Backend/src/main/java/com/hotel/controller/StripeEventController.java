@@ -0,0 +1,40 @@
+package com.hotel.controller;
+
+import com.hotel.model.StripeEventLog;
+import com.hotel.service.StripeEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/stripe-events")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class StripeEventController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeEventController.class);
+
+    @Autowired
+    private StripeEventService stripeEventService;
+
+    //  Logged Stripe events that were malformed or ran out of attempts
+    @GetMapping("/dead")
+    public ResponseEntity<List<StripeEventLog>> getDeadLetters() {
+        return ResponseEntity.ok(stripeEventService.getDeadLetters());
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<?> replay(@PathVariable Long id) {
+        logger.info("Admin replay of Stripe event log entry: {}", id);
+        try {
+            return ResponseEntity.ok(stripeEventService.replay(id));
+        } catch (RuntimeException e) {
+            logger.error("Stripe event replay failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package com.hotel.controller;
 
-import com.hotel.model.Booking;
-import com.hotel.service.BookingService;
+import com.hotel.service.StripeEventService;
 import com.stripe.exception.SignatureVerificationException;
-import com.stripe.model.Event;
-import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,9 +9,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.Map;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/stripe")
@@ -22,15 +17,19 @@ public class StripeWebhookController {
 
     private static final Logger logger = LoggerFactory.getLogger(StripeWebhookController.class);
 
+    private static final long SIGNATURE_TOLERANCE_SECONDS = 300;
+
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    private final BookingService bookingService;
+    private final StripeEventService stripeEventService;
 
-    public StripeWebhookController(BookingService bookingService) {
-        this.bookingService = bookingService;
+    public StripeWebhookController(StripeEventService stripeEventService) {
+        this.stripeEventService = stripeEventService;
     }
 
+    // Verify, append to stripe_event_log, ACK. Booking work happens on StripeEventProcessor,
+    // so a burst of completions costs one insert per event on the request thread.
     @PostMapping("/webhook")
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
@@ -38,78 +37,36 @@ public class StripeWebhookController {
     ) {
         logger.info("⚡ Incoming webhook triggered");
 
-        Event event;
-
+        StripeEventService.EventHeader header;
         try {
             logger.debug("🔐 Verifying Stripe signature...");
-            event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
+            Webhook.Signature.verifyHeader(payload, sigHeader, webhookSecret, SIGNATURE_TOLERANCE_SECONDS);
+            header = stripeEventService.readHeader(payload);
         } catch (SignatureVerificationException e) {
             logger.warn("❌ Stripe signature verification failed", e);
             return ResponseEntity.status(400).body("Signature mismatch");
-        } catch (Exception e) {
-            logger.error("❌ Webhook construction failed: {}", e.getMessage());
-            return ResponseEntity.status(500).body("Webhook error");
+        } catch (IOException e) {
+            logger.error("❌ Unreadable Stripe event: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid event payload");
         }
 
-        logger.info("✅ Stripe event type: {}", event.getType());
-
-        if ("checkout.session.completed".equals(event.getType())) {
-            try {
-                Session session = (Session) event.getData().getObject();
-
-                if (session == null) {
-                    logger.error("❌ Session deserialization failed");
-                    return ResponseEntity.badRequest().body("Invalid session object");
-                }
-
-                logger.debug("✅ Session retrieved: {}", session.getId());
-
-                Map<String, String> metadata = session.getMetadata();
-
-                if (metadata == null || metadata.isEmpty()) {
-                    logger.warn("⚠️ Metadata missing for session: {}", session.getId());
-                    return ResponseEntity.badRequest().body("Missing metadata");
-                }
-
-                String customerName = metadata.get("customerName");
-                String phoneNumber = metadata.get("phoneNumber");
-                String email = metadata.get("email");
-                String roomIdStr = metadata.get("roomId");
-                String checkInStr = metadata.get("checkInDate");
-                String checkOutStr = metadata.get("checkOutDate");
-
-                if (customerName == null || phoneNumber == null || email == null ||
-                        roomIdStr == null || checkInStr == null || checkOutStr == null) {
-                    logger.error("❌ Invalid metadata content");
-                    return ResponseEntity.badRequest().body("Invalid metadata fields");
-                }
-
-                Long roomId = Long.parseLong(roomIdStr);
-                LocalDate checkIn = LocalDate.parse(checkInStr);
-                LocalDate checkOut = LocalDate.parse(checkOutStr);
-                LocalTime bookingTime = LocalTime.now();
-
-                logger.info("💾 Saving booking for Stripe session: {}", session.getId());
-
-                Booking booking = bookingService.saveFinalBookingAfterStripe(
-                        customerName,
-                        phoneNumber,
-                        email,
-                        roomId,
-                        checkIn,
-                        checkOut,
-                        bookingTime,
-                        session.getId()
-                );
-
-                logger.info("✅ Booking saved successfully: {}", booking.getBookingId());
+        // Replays of an event we already applied stop here: no insert, no Event parse
+        if (stripeEventService.isHandled(header.id())) {
+            logger.info("🔁 Stripe event {} already handled", header.id());
+            return ResponseEntity.ok("Webhook already handled");
+        }
 
-            } catch (Exception e) {
-                logger.error("❌ Error handling checkout.session.completed: {}", e.getMessage(), e);
-                return ResponseEntity.status(500).body("Failed to create booking");
+        try {
+            if (!stripeEventService.append(header, payload)) {
+                logger.info("🔁 Stripe event {} already logged", header.id());
             }
+        } catch (Exception e) {
+            // Not durable yet: let Stripe redeliver
+            logger.error("❌ Could not log Stripe event {}: {}", header.id(), e.getMessage(), e);
+            return ResponseEntity.status(500).body("Webhook error");
         }
 
-        return ResponseEntity.ok("Webhook handled");
+        logger.info("✅ Stripe event {} ({}) logged", header.id(), header.type());
+        return ResponseEntity.ok("Webhook received");
     }
 }
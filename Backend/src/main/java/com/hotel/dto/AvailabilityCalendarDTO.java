@@ -0,0 +1,20 @@
+package com.hotel.dto;
+
+import com.hotel.model.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityCalendarDTO {
+    private Long branchId;
+    private RoomType roomType;
+    private int totalRooms;
+    private LocalDate from;
+    // freeRooms[i] is the remaining inventory for the night of from + i days
+    private int[] freeRooms;
+}
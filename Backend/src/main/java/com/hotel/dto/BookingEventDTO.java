@@ -0,0 +1,50 @@
+package com.hotel.dto;
+
+import com.hotel.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Partner webhook payload. Bump SCHEMA_VERSION on any breaking change to the fields below.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingEventDTO {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    private int schemaVersion;
+    private String type;
+    private String bookingId;
+    private String status;
+    private String customerName;
+    private String email;
+    private Long branchId;
+    private String branchName;
+    private String roomNumber;
+    private String roomType;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private double price;
+
+    // Room and branch must be initialized (see BookingRepository.findByBookingIdWithRoomAndBranch)
+    public static BookingEventDTO confirmed(Booking booking) {
+        return new BookingEventDTO(
+                SCHEMA_VERSION,
+                "booking.confirmed",
+                booking.getBookingId(),
+                booking.getStatus(),
+                booking.getCustomerName(),
+                booking.getEmail(),
+                booking.getBranch().getId(),
+                booking.getBranch().getName(),
+                booking.getRoom().getRoomNumber(),
+                booking.getRoom().getRoomType().name(),
+                booking.getCheckIn(),
+                booking.getCheckOut(),
+                booking.getPrice()
+        );
+    }
+}
@@ -1,5 +1,7 @@
 package com.hotel.dto;
 
+import com.hotel.model.RoomType;
+
 import java.time.LocalDate;
 
 public class BookingSummaryDTO {
@@ -14,6 +16,24 @@ public class BookingSummaryDTO {
     private LocalDate checkOut;
     private double price;
 
+    public BookingSummaryDTO() {}
+
+    // Used by the JPQL constructor expression in BookingRepository.findSummaryByBookingId
+    public BookingSummaryDTO(String bookingId, String customerName, String email, String phoneNumber,
+                             String branchName, String roomNumber, RoomType roomType,
+                             LocalDate checkIn, LocalDate checkOut, double price) {
+        this.bookingId = bookingId;
+        this.customerName = customerName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.branchName = branchName;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType != null ? roomType.name() : null;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.price = price;
+    }
+
     // Getters and Setters
     public String getBookingId() { return bookingId; }
     public void setBookingId(String bookingId) { this.bookingId = bookingId; }
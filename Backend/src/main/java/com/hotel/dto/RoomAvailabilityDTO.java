@@ -0,0 +1,18 @@
+package com.hotel.dto;
+
+import com.hotel.model.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomAvailabilityDTO {
+    private Long branchId;
+    private String branchName;
+    private RoomType roomType;
+    private int totalRooms;
+    private int bookedRooms;
+    private int freeRooms;
+}
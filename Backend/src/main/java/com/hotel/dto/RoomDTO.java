@@ -26,6 +26,16 @@ public class RoomDTO {
         }
     }
 
+    // ✅ Constructor for JPQL projections (room joined with its branch in one query)
+    public RoomDTO(Long id, String roomNumber, RoomType roomType, Long branchId, String branchName, String branchState) {
+        this.id = id;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType;
+        this.branchId = branchId;
+        this.branchName = branchName;
+        this.branchState = branchState;
+    }
+
     // Getters
     public Long getId() { return id; }
     public String getRoomNumber() { return roomNumber; }
@@ -4,20 +4,28 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+// No @Data: generated equals/hashCode/toString would walk the lazy branch/room proxies (one query each)
+// and break identity across persistence contexts. Entities compare by reference; toString skips associations.
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 public class Booking {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // UUIDv7 text in the API, native uuid in the table; unique index ux_booking_booking_id (V8)
+    @Column(nullable = false)
+    @Convert(converter = UuidStringConverter.class)
     private String bookingId;
 
     @Column(name = "customer_id")
@@ -37,10 +45,12 @@ public class Booking {
     )
     private String email;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "branch_id", foreignKey = @ForeignKey(name = "fk_booking_branch"))
     private Branch branch;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "room_id", foreignKey = @ForeignKey(name = "fk_booking_room"))
     private Room room;
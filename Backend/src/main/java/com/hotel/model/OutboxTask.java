@@ -0,0 +1,6 @@
+package com.hotel.model;
+
+public enum OutboxTask {
+    RECEIPT_EMAIL,
+    WEBHOOK
+}
@@ -1,10 +1,18 @@
 package com.hotel.model;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Getter
+@Setter
+@ToString
 public class Room {
 
     @Id
@@ -16,6 +24,7 @@ public class Room {
     @Enumerated(EnumType.STRING)
     private RoomType roomType;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "branch_id", nullable = false)
     private Branch branch;
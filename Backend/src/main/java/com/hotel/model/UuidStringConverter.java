@@ -0,0 +1,36 @@
+package com.hotel.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Keeps business ids as Strings in the API and entities while storing them in native uuid columns (16 bytes)
+@Converter
+public class UuidStringConverter implements AttributeConverter<String, UUID> {
+
+    // 8-4-4-4-12 hex digits; UUID.fromString alone also takes short groups like "1-2-3-4-5"
+    private static final Pattern CANONICAL = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    public static boolean isCanonical(String value) {
+        return value != null && value.length() == 36 && CANONICAL.matcher(value).matches();
+    }
+
+    @Override
+    public UUID convertToDatabaseColumn(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (!isCanonical(value)) {
+            throw new IllegalArgumentException("Invalid booking id: " + value);
+        }
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public String convertToEntityAttribute(UUID value) {
+        return value != null ? value.toString() : null;
+    }
+}
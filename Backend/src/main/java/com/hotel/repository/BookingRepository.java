@@ -1,9 +1,12 @@
 package com.hotel.repository;
 
+import com.hotel.dto.BookingSummaryDTO;
 import com.hotel.model.Booking;
 import com.hotel.model.Room;
 import com.hotel.model.RoomType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,35 +21,116 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     //  Fetch booking by bookingId (regardless of status)
     Booking findByBookingId(String bookingId);
 
+    //  Booking status page: one query, joined columns only, no entities or lazy proxies
+    @Query("""
+        SELECT new com.hotel.dto.BookingSummaryDTO(b.bookingId, b.customerName, b.email, b.phoneNumber,
+            br.name, r.roomNumber, r.roomType, b.checkIn, b.checkOut, b.price)
+        FROM Booking b JOIN b.branch br JOIN b.room r
+        WHERE b.bookingId = :bookingId
+    """)
+    BookingSummaryDTO findSummaryByBookingId(@Param("bookingId") String bookingId);
+
     //  Fetch only ACTIVE bookings by bookingId
-    @Query("SELECT b FROM Booking b WHERE b.status = 'ACTIVE' AND b.bookingId = :bookingId")
+    @Query("SELECT b FROM Booking b JOIN FETCH b.room WHERE b.status = 'ACTIVE' AND b.bookingId = :bookingId")
     Booking findActiveByBookingId(@Param("bookingId") String bookingId);
 
-    //  Fetch overlapping ACTIVE bookings based on branch + room type + date range
-    @Query("""
-        SELECT b FROM Booking b
-        WHERE b.branch.id = :branchId AND b.room.roomType = :roomType
-        AND ((b.checkIn <= :checkOut AND b.checkOut >= :checkIn))
+    //  Overlap is half-open everywhere: a stay [checkIn, checkOut) collides when checkIn < b.checkOut AND checkOut > b.checkIn.
+    //  Overlap lookups use the generated booking.stay daterange and its GiST indexes (V4 migration).
+
+    //  Number of distinct rooms of a branch/type with an ACTIVE stay overlapping the range
+    @Query(value = """
+        SELECT COUNT(DISTINCT b.room_id) FROM booking b
+        JOIN room r ON r.id = b.room_id
+        WHERE b.branch_id = :branchId AND r.room_type = :#{#roomType.name()}
         AND b.status = 'ACTIVE'
-    """)
-    List<Booking> findOverlappingBookings(
+        AND b.stay && daterange(:checkIn, :checkOut, '[)')
+    """, nativeQuery = true)
+    long countBookedRooms(
             @Param("branchId") Long branchId,
             @Param("roomType") RoomType roomType,
             @Param("checkIn") LocalDate checkIn,
             @Param("checkOut") LocalDate checkOut
     );
 
-    //  Clean up old records
-    @Query("SELECT b FROM Booking b WHERE b.createdAt < :cutoffDate")
-    List<Booking> findBookingsOlderThanThirtyDays(@Param("cutoffDate") LocalDate cutoffDate);
+    //  countBookedRooms for every branch and room type in one statement: branch id, room type name, booked rooms
+    @Query(value = """
+        SELECT b.branch_id, r.room_type, COUNT(DISTINCT b.room_id) FROM booking b
+        JOIN room r ON r.id = b.room_id
+        WHERE b.status = 'ACTIVE'
+        AND b.stay && daterange(:checkIn, :checkOut, '[)')
+        GROUP BY b.branch_id, r.room_type
+    """, nativeQuery = true)
+    List<Object[]> countBookedRoomsPerBranchAndType(
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    //  Whether a single room has an ACTIVE stay overlapping the range
+    @Query(value = """
+        SELECT EXISTS (
+            SELECT 1 FROM booking b
+            WHERE b.room_id = :roomId
+            AND b.status = 'ACTIVE'
+            AND b.stay && daterange(:checkIn, :checkOut, '[)')
+        )
+    """, nativeQuery = true)
+    boolean existsActiveStayForRoom(
+            @Param("roomId") Long roomId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    //  Stays feeding the in-memory occupancy index: branch id, room type, check-in, check-out, room id, booking pk
+    @Query("""
+        SELECT b.branch.id, b.room.roomType, b.checkIn, b.checkOut, b.room.id, b.id FROM Booking b
+        WHERE b.status = 'ACTIVE' AND b.checkOut > :today
+    """)
+    List<Object[]> findActiveStaysEndingAfter(@Param("today") LocalDate today);
+
+    //  Retention: moves up to :limit bookings created before :cutoff into booking_archive in one statement.
+    //  Only finished stays (checked out by :today) or non-ACTIVE bookings qualify, so the occupancy index is unaffected.
+    //  Rows locked by another transaction are skipped and picked up by a later chunk. Outbox rows of the moved
+    //  bookings go with them (their receipt/webhook could no longer be produced). Returns the rows moved.
+    @Modifying
+    @Query(value = """
+        WITH moved AS (
+            DELETE FROM booking
+            WHERE id IN (
+                SELECT id FROM booking
+                WHERE created_at < :cutoff AND (status <> 'ACTIVE' OR check_out <= :today)
+                ORDER BY created_at, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, booking_id, customer_id, customer_name, phone_number, email, branch_id, room_id,
+                      check_in, check_out, price, discount, created_at, booking_time, status, stripe_session_id
+        ), dropped_outbox AS (
+            DELETE FROM booking_outbox o USING moved m WHERE o.booking_id = m.booking_id
+        )
+        INSERT INTO booking_archive (id, booking_id, customer_id, customer_name, phone_number, email, branch_id, room_id,
+                                     check_in, check_out, price, discount, created_at, booking_time, status, stripe_session_id)
+        SELECT id, booking_id, customer_id, customer_name, phone_number, email, branch_id, room_id,
+               check_in, check_out, price, discount, created_at, booking_time, status, stripe_session_id
+        FROM moved
+    """, nativeQuery = true)
+    int archiveChunk(@Param("cutoff") LocalDate cutoff, @Param("today") LocalDate today, @Param("limit") int limit);
 
     //  Check if a room is still booked past a certain date
     boolean existsByRoomAndCheckOutAfter(Room room, LocalDate date);
 
-    //  Get full booking with room and branch for PDF generation
-    @Query("SELECT b FROM Booking b JOIN FETCH b.room r JOIN FETCH r.branch WHERE b.bookingId = :bookingId")
+    //  Get full booking with room and branch for PDF generation (readers use booking.branch, never room.branch)
+    @Query("SELECT b FROM Booking b JOIN FETCH b.branch JOIN FETCH b.room WHERE b.bookingId = :bookingId")
     Booking findByBookingIdWithRoomAndBranch(@Param("bookingId") String bookingId);
 
+    //  Keyset page of a branch's bookings created in [from, to], ready for receipt rendering
+    @Query("""
+        SELECT b FROM Booking b JOIN FETCH b.branch JOIN FETCH b.room
+        WHERE b.branch.id = :branchId AND b.createdAt BETWEEN :from AND :to AND b.id > :afterId
+        ORDER BY b.id ASC
+    """)
+    List<Booking> findReceiptPage(@Param("branchId") Long branchId, @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to, @Param("afterId") Long afterId, Pageable pageable);
+
     //  Support Stripe webhook lookups
     Optional<Booking> findByStripeSessionId(String stripeSessionId);
 }
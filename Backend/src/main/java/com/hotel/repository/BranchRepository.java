@@ -1,8 +1,18 @@
 package com.hotel.repository;
 
 import com.hotel.model.Branch;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface BranchRepository extends JpaRepository<Branch, Long> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Branch findByName(String name);
+
+    // Keyset page of branches after a given id
+    List<Branch> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
\ No newline at end of file
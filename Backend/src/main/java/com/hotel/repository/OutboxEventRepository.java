@@ -0,0 +1,46 @@
+package com.hotel.repository;
+
+import com.hotel.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    //  Due PENDING rows, oldest first; rows locked by another poller are skipped
+    @Query(value = """
+        SELECT * FROM booking_outbox
+        WHERE status = 'PENDING' AND next_attempt_at <= :now
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    //  Push claimed rows out of the due window while a worker handles them
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.nextAttemptAt = :leaseUntil, o.updatedAt = :now WHERE o.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEvent> findByStatusOrderByIdAsc(String status);
+
+    //  Retention: deletes up to :limit DONE rows last touched before :cutoff; DEAD rows stay for an admin
+    @Modifying
+    @Query(value = """
+        DELETE FROM booking_outbox
+        WHERE id IN (
+            SELECT id FROM booking_outbox
+            WHERE status = 'DONE' AND updated_at < :cutoff
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """, nativeQuery = true)
+    int pruneDone(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
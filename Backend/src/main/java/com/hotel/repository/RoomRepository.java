@@ -1,76 +1,39 @@
 package com.hotel.repository;
 
+import com.hotel.dto.RoomDTO;
 import com.hotel.model.Room;
 import com.hotel.model.RoomType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
-    // ✅ Find the first unbooked room by branch ID and room type
-    @Query("""
-        SELECT r FROM Room r
-        WHERE r.branch.id = :branchId
-          AND r.roomType = :roomType
-          AND NOT EXISTS (
-              SELECT 1 FROM Booking b
-              WHERE b.room = r
-                AND b.status = 'ACTIVE'
-                AND (:checkIn < b.checkOut AND :checkOut > b.checkIn)
-          )
-        ORDER BY r.id ASC
-    """)
-    List<Room> findFirstAvailableRoomCandidates(
-        Long branchId,
-        RoomType roomType,
-        LocalDate checkIn,
-        LocalDate checkOut
-    );
+    // ✅ All rooms of a branch/type combo, availability is decided by AvailabilityService (query-cached)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Room> findByBranchIdAndRoomTypeOrderByRoomNumberAsc(Long branchId, RoomType roomType);
 
-    // ✅ Get all rooms available for a branch/type combo in given date range
+    // ✅ Keyset page of rooms after a given id, joined with their branch, optionally filtered
     @Query("""
-        SELECT r FROM Room r
-        WHERE r.branch.id = :branchId
-          AND r.roomType = :roomType
-          AND NOT EXISTS (
-              SELECT 1 FROM Booking b
-              WHERE b.room = r
-                AND b.status = 'ACTIVE'
-                AND (:checkIn < b.checkOut AND :checkOut > b.checkIn)
-          )
-        ORDER BY r.roomNumber ASC
-    """)
-    List<Room> findAllAvailableRooms(
-        Long branchId,
-        RoomType roomType,
-        LocalDate checkIn,
-        LocalDate checkOut
-    );
-
-    // ✅ Same as above but filters by branch name instead of ID
-    @Query("""
-        SELECT r FROM Room r
-        WHERE r.branch.name = :branchName
-          AND r.roomType = :roomType
-          AND NOT EXISTS (
-              SELECT 1 FROM Booking b
-              WHERE b.room = r
-                AND b.status = 'ACTIVE'
-                AND (:checkIn < b.checkOut AND :checkOut > b.checkIn)
-          )
+        SELECT new com.hotel.dto.RoomDTO(r.id, r.roomNumber, r.roomType, b.id, b.name, b.state)
+        FROM Room r JOIN r.branch b
+        WHERE r.id > :afterId
+          AND (:branchId IS NULL OR b.id = :branchId)
+          AND (:roomType IS NULL OR r.roomType = :roomType)
         ORDER BY r.id ASC
     """)
-    List<Room> findAvailableRoomByBranchAndType(
-        String branchName,
-        RoomType roomType,
-        LocalDate checkIn,
-        LocalDate checkOut
-    );
+    List<RoomDTO> findRoomPage(Long afterId, Long branchId, RoomType roomType, Pageable pageable);
+
+    // ✅ Every room as branch id, room type, room id — loaded into OccupancyIndex
+    @Query("SELECT r.branch.id, r.roomType, r.id FROM Room r ORDER BY r.roomNumber ASC")
+    List<Object[]> findRoomKeys();
 
     // ✅ For dashboard stats (raw SQL)
     @Query(value = "SELECT * FROM branch_room_stats", nativeQuery = true)
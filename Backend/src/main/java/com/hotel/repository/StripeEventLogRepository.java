@@ -0,0 +1,68 @@
+package com.hotel.repository;
+
+import com.hotel.model.StripeEventLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StripeEventLogRepository extends JpaRepository<StripeEventLog, Long> {
+
+    //  Append; a redelivered event id is ignored. Returns 0 for a duplicate.
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO stripe_event_log (event_id, event_type, session_key, payload, status, attempts, next_attempt_at, received_at)
+        VALUES (:eventId, :eventType, :sessionKey, :payload, 'PENDING', 0, :now, :now)
+        ON CONFLICT (event_id) DO NOTHING
+    """, nativeQuery = true)
+    int append(@Param("eventId") String eventId, @Param("eventType") String eventType,
+               @Param("sessionKey") String sessionKey, @Param("payload") String payload,
+               @Param("now") LocalDateTime now);
+
+    //  Due head-of-line events only: a row waits while an older PENDING row of its session exists
+    //  (including one that is leased or backing off), so each session is applied strictly in order
+    @Query(value = """
+        SELECT * FROM stripe_event_log e
+        WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now
+          AND NOT EXISTS (
+              SELECT 1 FROM stripe_event_log p
+              WHERE p.session_key = e.session_key AND p.status = 'PENDING' AND p.id < e.id
+          )
+        ORDER BY e.id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<StripeEventLog> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE StripeEventLog e SET e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    //  [pending count, oldest pending received_at]
+    @Query(value = "SELECT COUNT(*), MIN(received_at) FROM stripe_event_log WHERE status = 'PENDING'", nativeQuery = true)
+    List<Object[]> pendingStats();
+
+    List<StripeEventLog> findByStatusOrderByIdAsc(String status);
+
+    //  Retention: deletes up to :limit applied events processed before :cutoff (well past Stripe's 3-day
+    //  redelivery window, so replays are still collapsed); DEAD rows stay for an admin
+    @Modifying
+    @Query(value = """
+        DELETE FROM stripe_event_log
+        WHERE id IN (
+            SELECT id FROM stripe_event_log
+            WHERE status = 'DONE' AND processed_at < :cutoff
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """, nativeQuery = true)
+    int pruneDone(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -1,6 +1,11 @@
 package com.hotel.scheduler;
 
-import com.hotel.service.BookingService;
+import com.hotel.service.BookingRetentionService;
+import com.hotel.service.CheckoutSessionCache;
+import com.hotel.service.OccupancyIndex;
+import com.hotel.service.PriceCatalog;
+import com.hotel.service.ReceiptStore;
+import com.hotel.service.RoomHoldManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -9,13 +14,53 @@ import org.springframework.stereotype.Component;
 public class MaintenanceScheduler {
 
     @Autowired
-    private BookingService bookingService;
+    private BookingRetentionService bookingRetentionService;
+
+    @Autowired
+    private RoomHoldManager roomHoldManager;
+
+    @Autowired
+    private CheckoutSessionCache checkoutSessionCache;
+
+    @Autowired
+    private PriceCatalog priceCatalog;
+
+    @Autowired
+    private ReceiptStore receiptStore;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
 
    
 
-    @Scheduled(cron = "0 0 0 * * ?")
+    @Scheduled(cron = "${app.retention.cron:0 0 0 * * ?}")
     public void cleanupOldBookings() {
-        bookingService.deleteOldBookings();
+        bookingRetentionService.archiveOldBookings();
+    }
+
+    // Stored receipts of archived bookings (and superseded versions) stop being downloaded and age out
+    @Scheduled(cron = "${app.retention.cron:0 0 0 * * ?}")
+    public void pruneReceipts() {
+        receiptStore.prune();
+    }
+
+    // Just after midnight, so yesterday's nights and check-outs leave the in-memory index
+    @Scheduled(cron = "0 1 0 * * ?")
+    public void rollOccupancy() {
+        occupancyIndex.roll();
+    }
+
+    // Expired holds are already ignored by readers; this just frees their memory
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredHolds() {
+        roomHoldManager.purgeExpired();
+        checkoutSessionCache.purgeExpired();
+    }
+
+    // Picks up price changes made through another instance
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-millis:300000}")
+    public void refreshPrices() {
+        priceCatalog.reload();
     }
 
     
@@ -0,0 +1,67 @@
+package com.hotel.scheduler;
+
+import com.hotel.service.OutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drains the booking outbox on a bounded pool; only claims as many rows as there are free slots
+@Component
+public class OutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxWorker.class);
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${app.outbox.workers:4}")
+    private int workers;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-millis:2000}")
+    public void drain() {
+        int free = workers * 2 - executor.getActiveCount() - executor.getQueue().size();
+        if (free <= 0) {
+            return;
+        }
+        try {
+            List<Long> claimed = outboxService.claimDue(free);
+            for (Long eventId : claimed) {
+                executor.execute(() -> outboxService.process(eventId));
+            }
+        } catch (Exception e) {
+            // Unsubmitted rows stay leased and come back once the lease runs out
+            logger.error("Outbox drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,78 @@
+package com.hotel.scheduler;
+
+import com.hotel.service.StripeEventService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Applies the Stripe event log. Sessions run in parallel (up to app.stripe.events.workers);
+// claimDue only hands out the oldest pending event of each session, so one session is applied in order.
+@Component
+public class StripeEventProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeEventProcessor.class);
+
+    @Autowired
+    private StripeEventService stripeEventService;
+
+    @Value("${app.stripe.events.workers:4}")
+    private int workers;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stripe-events-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.stripe.events.poll-millis:500}")
+    public void drain() {
+        try {
+            int free = workers * 2 - executor.getActiveCount() - executor.getQueue().size();
+            if (free <= 0) {
+                return;
+            }
+            List<Long> claimed = stripeEventService.claimDue(free);
+            for (Long logId : claimed) {
+                executor.execute(() -> stripeEventService.process(logId));
+            }
+        } catch (Exception e) {
+            // Unsubmitted events stay leased and come back once the lease runs out
+            logger.error("Stripe event drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // COUNT/MIN over the log is too heavy for every drain tick; the lag gauges only need to be roughly current
+    @Scheduled(fixedDelayString = "${app.stripe.events.lag-refresh-millis:15000}")
+    public void refreshLag() {
+        try {
+            stripeEventService.refreshLag();
+        } catch (Exception e) {
+            logger.warn("Stripe event lag refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -35,8 +35,10 @@ public class SecurityConfig {
     "/api/auth/**",
     "/api/room/**",
     "/api/price",
+    "/api/price/quote",
     "/api/branch/**",
     "/api/availability",
+    "/api/availability/**",
     "/api/booking-status",
     "/api/booking/*/receipt",
     "/api/payment/create",
@@ -47,6 +49,7 @@ public class SecurityConfig {
 
 
                 .requestMatchers("/api/admin/**").hasAuthority("ADMIN")
+                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                 .requestMatchers("/api/employee/**").hasAnyAuthority("ADMIN", "EMPLOYEE")
 
                 .anyRequest().authenticated()
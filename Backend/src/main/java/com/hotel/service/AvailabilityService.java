@@ -0,0 +1,169 @@
+package com.hotel.service;
+
+import com.hotel.dto.AvailabilityCalendarDTO;
+import com.hotel.dto.RoomAvailabilityDTO;
+import com.hotel.model.Branch;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.BranchRepository;
+import com.hotel.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Single source of truth for "is it free": every availability question in the app goes through here.
+// A stay [checkIn, checkOut) collides with a booking when checkIn < b.checkOut AND checkOut > b.checkIn.
+// Ranges the occupancy index covers are answered in memory; older ranges fall back to COUNT/EXISTS queries.
+@Service
+public class AvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private static final EnumMap<RoomType, Integer> NONE_BOOKED = new EnumMap<>(RoomType.class);
+
+    @Autowired private OccupancyIndex occupancyIndex;
+    @Autowired private RoomHoldManager roomHoldManager;
+    @Autowired private RoomAssignmentEngine roomAssignmentEngine;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private BranchRepository branchRepository;
+    @Autowired private BranchDirectory branchDirectory;
+    @Autowired private RoomRepository roomRepository;
+
+    // Free means neither booked nor held by a checkout in progress
+    public boolean isRoomFree(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return !roomHoldManager.isHeld(roomId, checkIn, checkOut) && isRoomUnbooked(roomId, checkIn, checkOut);
+    }
+
+    // Atomically checks the room and holds it for the holder until the Stripe session expires
+    public boolean holdRoom(Long roomId, LocalDate checkIn, LocalDate checkOut, String holder) {
+        return roomHoldManager.tryHold(roomId, checkIn, checkOut, holder,
+                () -> isRoomUnbooked(roomId, checkIn, checkOut));
+    }
+
+    public void releaseHold(Long roomId, LocalDate checkIn, LocalDate checkOut, String holder) {
+        roomHoldManager.release(roomId, checkIn, checkOut, holder);
+    }
+
+    public int getTotalRooms(Long branchId, RoomType roomType) {
+        return occupancyIndex.totalRooms(branchId, roomType);
+    }
+
+    // Rooms of the branch/type that are booked or held on at least one night of the stay
+    public int getBookedRooms(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        if (!isIndexed(checkIn)) {
+            return (int) bookingRepository.countBookedRooms(branchId, roomType, checkIn, checkOut);
+        }
+        int booked = 0;
+        for (long roomId : occupancyIndex.roomIds(branchId, roomType)) {
+            if (!isRoomFree(roomId, checkIn, checkOut)) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    // True when at least one room of the type is free for the whole stay
+    public boolean hasAvailableRoom(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        if (!isIndexed(checkIn)) {
+            return bookingRepository.countBookedRooms(branchId, roomType, checkIn, checkOut) < getTotalRooms(branchId, roomType);
+        }
+        for (long roomId : occupancyIndex.roomIds(branchId, roomType)) {
+            if (isRoomFree(roomId, checkIn, checkOut)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Free rooms, best fit first (see RoomAssignmentEngine), then by room number
+    public List<Room> getAvailableRooms(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        return roomRepository.findByBranchIdAndRoomTypeOrderByRoomNumberAsc(branchId, roomType)
+                .stream()
+                .filter(room -> isRoomFree(room.getId(), checkIn, checkOut))
+                .sorted(Comparator.comparingLong(room -> roomAssignmentEngine.leftoverNights(room.getId(), checkIn, checkOut)))
+                .collect(Collectors.toList());
+    }
+
+    // Best-fit free room of the named branch, or null; no query once the branch name has been resolved
+    public Long findAvailableRoomId(String branchName, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        Long branchId = branchDirectory.resolveId(branchName);
+        if (branchId == null) {
+            logger.warn("Branch not found: {}", branchName);
+            return null;
+        }
+        return roomAssignmentEngine.pickBestFit(occupancyIndex.roomIds(branchId, roomType), checkIn, checkOut,
+                roomId -> isRoomFree(roomId, checkIn, checkOut));
+    }
+
+    // Total / booked / free rooms for every branch and room type: one branch query, the rest from the index
+    // (or, for stays older than the index, one grouped count instead of one per branch and type)
+    public List<RoomAvailabilityDTO> getAvailabilityMatrix(LocalDate checkIn, LocalDate checkOut) {
+        Map<Long, EnumMap<RoomType, Integer>> bookedBefore = isIndexed(checkIn) ? null : countBookedRooms(checkIn, checkOut);
+        List<RoomAvailabilityDTO> matrix = new ArrayList<>();
+        for (Branch branch : branchRepository.findAll()) {
+            Map<RoomType, Integer> bookedOfBranch = bookedBefore == null ? null : bookedBefore.getOrDefault(branch.getId(), NONE_BOOKED);
+            for (RoomType roomType : RoomType.values()) {
+                int total = getTotalRooms(branch.getId(), roomType);
+                int booked = bookedOfBranch == null
+                        ? getBookedRooms(branch.getId(), roomType, checkIn, checkOut)
+                        : bookedOfBranch.getOrDefault(roomType, 0);
+                matrix.add(new RoomAvailabilityDTO(branch.getId(), branch.getName(), roomType, total, booked, total - booked));
+            }
+        }
+        return matrix;
+    }
+
+    // Remaining inventory per night for one branch and room type (booked or held rooms excluded), from memory
+    public AvailabilityCalendarDTO getAvailabilityCalendar(Long branchId, RoomType roomType, LocalDate from, int days) {
+        int total = getTotalRooms(branchId, roomType);
+        int[] taken = occupancyIndex.nightlyOccupancy(branchId, roomType, from, days);
+        // Held rooms are taken too; a room both booked and held on a night is already counted
+        for (long roomId : occupancyIndex.roomIds(branchId, roomType)) {
+            boolean[] held = roomHoldManager.heldNights(roomId, from, days);
+            if (held == null) {
+                continue;
+            }
+            for (int i = 0; i < days; i++) {
+                if (held[i] && occupancyIndex.isRoomFree(roomId, from.plusDays(i), from.plusDays(i + 1))) {
+                    taken[i]++;
+                }
+            }
+        }
+        int[] free = new int[days];
+        for (int i = 0; i < days; i++) {
+            free[i] = Math.max(0, total - taken[i]);
+        }
+        return new AvailabilityCalendarDTO(branchId, roomType, total, from, free);
+    }
+
+    private Map<Long, EnumMap<RoomType, Integer>> countBookedRooms(LocalDate checkIn, LocalDate checkOut) {
+        Map<Long, EnumMap<RoomType, Integer>> booked = new HashMap<>();
+        for (Object[] row : bookingRepository.countBookedRoomsPerBranchAndType(checkIn, checkOut)) {
+            booked.computeIfAbsent(((Number) row[0]).longValue(), id -> new EnumMap<>(RoomType.class))
+                    .put(RoomType.valueOf((String) row[1]), ((Number) row[2]).intValue());
+        }
+        return booked;
+    }
+
+    private boolean isRoomUnbooked(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        if (isIndexed(checkIn)) {
+            return occupancyIndex.isRoomFree(roomId, checkIn, checkOut);
+        }
+        return !bookingRepository.existsActiveStayForRoom(roomId, checkIn, checkOut);
+    }
+
+    private boolean isIndexed(LocalDate checkIn) {
+        return !checkIn.isBefore(occupancyIndex.getTrackedFrom());
+    }
+}
@@ -0,0 +1,50 @@
+package com.hotel.service;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Booking ids are UUIDv7 (RFC 9562): 48-bit millisecond timestamp, then a 12-bit counter, then 62 random bits.
+// Ids from this process sort in creation order, so inserts land on the right edge of the booking_id index
+// instead of a random page; the random tail keeps them unguessable across instances.
+@Component
+public class BookingIdGenerator {
+
+    private final SecureRandom random = new SecureRandom();
+
+    private long lastMillis;
+    private int counter;
+
+    public synchronized UUID nextBookingId() {
+        long millis = System.currentTimeMillis();
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            // Random start leaves headroom below 4096 while still hiding the per-ms volume
+            counter = random.nextInt(1 << 11);
+        } else if (++counter >= 1 << 12) {
+            // 4096 ids in one millisecond (or the clock went back): borrow the next millisecond
+            lastMillis++;
+            counter = 0;
+        }
+
+        long msb = (lastMillis << 16) | (0x7L << 12) | counter;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    // Stable 63-bit key for a guest (first 8 bytes of SHA-256, sign bit cleared). V8 recomputes old rows the same way.
+    public long customerKey(String customerName, String phoneNumber) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((customerName + ":" + phoneNumber).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
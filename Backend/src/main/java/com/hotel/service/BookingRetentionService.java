@@ -0,0 +1,135 @@
+package com.hotel.service;
+
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.OutboxEventRepository;
+import com.hotel.repository.StripeEventLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+// Moves old bookings to booking_archive one chunk per transaction, entirely inside Postgres: no rows
+// are loaded into the heap and no transaction holds more than batchSize row locks. There is no cursor to
+// save; whatever an interrupted or time-boxed run left behind is simply the next run's first chunk.
+// The same window then prunes DONE booking_outbox and stripe_event_log rows, which nothing reads again.
+@Service
+public class BookingRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingRetentionService.class);
+
+    @Value("${app.retention.days:30}")
+    private int retentionDays;
+
+    @Value("${app.retention.batch-size:1000}")
+    private int batchSize;
+
+    // Breathing room between chunks for autovacuum, replicas and regular traffic
+    @Value("${app.retention.pause-millis:100}")
+    private long pauseMillis;
+
+    @Value("${app.retention.max-run-seconds:600}")
+    private long maxRunSeconds;
+
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private StripeEventLogRepository stripeEventLogRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastRunArchived = new AtomicLong();
+    private Counter archivedCounter;
+    private Counter prunedOutbox;
+    private Counter prunedStripeEvents;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    public void init() {
+        archivedCounter = Counter.builder("booking.retention.archived").register(meterRegistry);
+        prunedOutbox = Counter.builder("booking.retention.pruned").tag("table", "booking_outbox").register(meterRegistry);
+        prunedStripeEvents = Counter.builder("booking.retention.pruned").tag("table", "stripe_event_log").register(meterRegistry);
+        chunkTimer = Timer.builder("booking.retention.chunk").register(meterRegistry);
+        meterRegistry.gauge("booking.retention.last-run.archived", lastRunArchived);
+    }
+
+    // Archives old bookings, then prunes finished outbox rows and applied Stripe events past the same window.
+    // Returns the number of bookings archived by this run.
+    public long archiveOldBookings() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Booking retention already running, skipping");
+            return 0;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate cutoff = today.minusDays(retentionDays);
+            LocalDateTime cutoffTime = cutoff.atStartOfDay();
+            long deadline = System.nanoTime() + maxRunSeconds * 1_000_000_000L;
+
+            logger.info("Archiving bookings created before {}", cutoff);
+            lastRunArchived.set(0);
+            long archived = runChunks("booking", deadline, () -> bookingRepository.archiveChunk(cutoff, today, batchSize), moved -> {
+                archivedCounter.increment(moved);
+                lastRunArchived.addAndGet(moved);
+            });
+            runChunks("booking_outbox", deadline, () -> outboxEventRepository.pruneDone(cutoffTime, batchSize),
+                    pruned -> prunedOutbox.increment(pruned));
+            runChunks("stripe_event_log", deadline, () -> stripeEventLogRepository.pruneDone(cutoffTime, batchSize),
+                    pruned -> prunedStripeEvents.increment(pruned));
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Repeats one chunk statement, each in its own transaction, until a chunk comes back short or time runs out
+    private long runChunks(String table, long deadline, IntSupplier chunk, IntConsumer progress) {
+        long total = 0;
+        int chunks = 0;
+        int moved;
+        do {
+            moved = chunkTimer.record(() -> transactionTemplate.execute(status -> chunk.getAsInt()));
+            total += moved;
+            chunks++;
+            progress.accept(moved);
+            if (chunks % 10 == 0) {
+                logger.info("Retention progress on {}: {} rows in {} chunks", table, total, chunks);
+            }
+            if (moved == batchSize && !pause()) {
+                break;
+            }
+        } while (moved == batchSize && System.nanoTime() < deadline);
+
+        if (moved == batchSize) {
+            logger.info("Retention on {} stopped at the {}s budget after {} rows; the next run continues", table, maxRunSeconds, total);
+        } else {
+            logger.info("Retention on {} done: {} rows in {} chunks", table, total, chunks);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -11,13 +11,14 @@ import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 @Service
 public class BookingService {
@@ -25,43 +26,25 @@ public class BookingService {
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
     @Autowired private BookingRepository bookingRepository;
-    @Autowired private BranchRepository branchRepository;
     @Autowired private RoomRepository roomRepository;
     @Autowired private RoomService roomService;
-    @Autowired private PdfService pdfService;
-    @Autowired private EmailService emailService;
-    @Autowired private WebhookService webhookService;
-    @Autowired private PriceRepository priceRepository;
+    @Autowired private OutboxService outboxService;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private RateEngine rateEngine;
+    @Autowired private OccupancyIndex occupancyIndex;
+    @Autowired private AvailabilityService availabilityService;
     @Autowired private Validator validator;
-
-    // Used by filter page to check room type availability
-    public boolean checkAvailability(Long branchId, String roomTypeStr, LocalDate checkIn, LocalDate checkOut) {
-        logger.info("Checking availability for branchId: {}, roomType: {}, checkIn: {}, checkOut: {}", branchId, roomTypeStr, checkIn, checkOut);
-        Branch branch = branchRepository.findById(branchId).orElseThrow();
-        RoomType roomType = RoomType.valueOf(roomTypeStr.toUpperCase());
-
-        int totalRooms = (int) branch.getRooms().stream().filter(r -> r.getRoomType() == roomType).count();
-        List<Booking> overlapping = bookingRepository.findOverlappingBookings(branchId, roomType, checkIn, checkOut);
-
-        logger.debug("Found {} overlapping bookings", overlapping.size());
-        return overlapping.size() < totalRooms;
-    }
+    @Autowired private BookingIdGenerator bookingIdGenerator;
 
     // Only used before creating Stripe session — checks room conflict
     public Booking prepareTempBooking(String customerName, String phoneNumber, String email,
                                       Long roomId, LocalDate checkIn, LocalDate checkOut, LocalTime bookingTime) {
-        logger.info("Pre-booking (no DB write yet) for Stripe: roomId={}", roomId);
+        logger.info("Pre-booking (room hold, no DB write yet) for Stripe: roomId={}", roomId);
 
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new RuntimeException("Room not found"));
-        RoomType roomType = room.getRoomType();
 
-        boolean isBooked = bookingRepository.findOverlappingBookings(
-                room.getBranch().getId(), roomType, checkIn, checkOut)
-                .stream()
-                .anyMatch(b -> b.getRoom().getId().equals(roomId));
-
-        if (isBooked) {
+        if (!availabilityService.holdRoom(roomId, checkIn, checkOut, holderKey(email))) {
             logger.warn("Room already booked for selected date range");
             throw new RuntimeException("Selected room is not available");
         }
@@ -74,7 +57,7 @@ public class BookingService {
         temp.setBranch(room.getBranch());
         temp.setCheckIn(checkIn);
         temp.setCheckOut(checkOut);
-        temp.setPrice(calculatePrice(roomType, checkIn, checkOut));
+        temp.setPrice(calculatePrice(room, checkIn, checkOut));
         temp.setBookingTime(bookingTime != null ? bookingTime.withNano(0) : LocalTime.now().withNano(0));
 
         return temp;
@@ -83,20 +66,20 @@ public class BookingService {
     // Stripe webhook will use this to persist final booking
     public Booking saveFinalBookingAfterStripe(String customerName, String phoneNumber, String email,
                                                Long roomId, LocalDate checkIn, LocalDate checkOut,
-                                               LocalTime bookingTime, String sessionId) {
+                                               LocalTime bookingTime, String sessionId, Double quotedPrice) {
         logger.info("Webhook saving final booking for Stripe session: {}", sessionId);
 
-        if (bookingRepository.findByStripeSessionId(sessionId).isPresent()) {
+        Optional<Booking> existingForSession = bookingRepository.findByStripeSessionId(sessionId);
+        if (existingForSession.isPresent()) {
             logger.warn("Booking already exists for Stripe session: {}", sessionId);
-            return bookingRepository.findByStripeSessionId(sessionId).get();
+            return existingForSession.get();
         }
 
         Room room = roomRepository.findById(roomId).orElseThrow(() -> new RuntimeException("Room not found"));
-        RoomType roomType = room.getRoomType();
 
         Booking booking = new Booking();
-        booking.setBookingId(UUID.randomUUID().toString());
-        booking.setCustomerId((long) Math.abs((customerName + ":" + phoneNumber).hashCode()));
+        booking.setBookingId(bookingIdGenerator.nextBookingId().toString());
+        booking.setCustomerId(bookingIdGenerator.customerKey(customerName, phoneNumber));
         booking.setCustomerName(customerName);
         booking.setPhoneNumber(phoneNumber);
         booking.setEmail(email);
@@ -104,7 +87,8 @@ public class BookingService {
         booking.setRoom(room);
         booking.setCheckIn(checkIn);
         booking.setCheckOut(checkOut);
-        booking.setPrice(calculatePrice(roomType, checkIn, checkOut));
+        // Keep the price the guest was charged; rates may have moved since the session was created
+        booking.setPrice(quotedPrice != null ? quotedPrice : calculatePrice(room, checkIn, checkOut));
         booking.setDiscount(0);
         booking.setCreatedAt(LocalDate.now());
         booking.setBookingTime(bookingTime != null ? bookingTime.withNano(0) : LocalTime.now().withNano(0));
@@ -117,16 +101,38 @@ public class BookingService {
             throw new ConstraintViolationException(violations);
         }
 
-        bookingRepository.save(booking);
+        // The booking and its outbox rows commit together; receipt email and webhook run later on OutboxWorker
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookingRepository.save(booking);
+                outboxService.enqueueBookingConfirmed(booking.getBookingId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent redelivery of the same session won the insert
+            Optional<Booking> existing = bookingRepository.findByStripeSessionId(sessionId);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            // booking_room_stay_no_overlap: another ACTIVE booking already holds this room for these nights
+            logger.error("Room {} already booked for {} - {}, Stripe session: {}", roomId, checkIn, checkOut, sessionId);
+            throw new RuntimeException("Room already booked for the selected dates", e);
+        }
+        occupancyIndex.recordBooking(booking);
+        availabilityService.releaseHold(roomId, checkIn, checkOut, holderKey(email));
         logger.info("✅ Booking saved to DB with ID: {}", booking.getBookingId());
 
-        byte[] pdf = pdfService.generateReceipt(booking);
-        emailService.sendEmail(email, pdf, booking);
-        webhookService.notifyWebhook(booking);
-
         return booking;
     }
 
+    // Frees the hold taken by prepareTempBooking when the Stripe session could not be created
+    public void releaseTempBooking(Booking temp) {
+        availabilityService.releaseHold(temp.getRoom().getId(), temp.getCheckIn(), temp.getCheckOut(), holderKey(temp.getEmail()));
+    }
+
+    private static String holderKey(String email) {
+        return email.trim().toLowerCase();
+    }
+
     // ⚠️ ONLY reads booking after payment for frontend status
     public Booking confirmBookingFromStripeSession(String sessionId) {
         logger.info("Reading booking from DB for session: {}", sessionId);
@@ -134,21 +140,14 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("Booking not found for session: " + sessionId));
     }
 
-    private double calculatePrice(RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
-        long days = checkIn.until(checkOut).getDays();
-
-        String typeKey = roomType.name().substring(0, 1).toUpperCase() +
-                roomType.name().substring(1).toLowerCase();
-
-        Price price = priceRepository.findByRoomType(typeKey)
-                .orElseThrow(() -> new RuntimeException("Price not found for room type: " + typeKey));
-
-        return price.getPricePerNight() * days;
+    // Room price for the stay from the rate calendar (weekend and occupancy aware); taxes and fees are added at checkout
+    private double calculatePrice(Room room, LocalDate checkIn, LocalDate checkOut) {
+        return rateEngine.quote(room.getBranch().getId(), room.getRoomType(), checkIn, checkOut);
     }
 
     public void cancelBooking(String bookingId) {
         logger.info("Cancelling booking with ID: {}", bookingId);
-        Booking booking = bookingRepository.findActiveByBookingId(bookingId);
+        Booking booking = isBookingId(bookingId) ? bookingRepository.findActiveByBookingId(bookingId) : null;
         if (booking == null) {
             logger.warn("Active booking not found for ID: {}", bookingId);
             throw new RuntimeException("Booking not found or already cancelled");
@@ -156,20 +155,13 @@ public class BookingService {
 
         booking.setStatus("CANCELLED");
         bookingRepository.save(booking);
+        occupancyIndex.releaseBooking(booking);
         logger.info("Booking cancelled");
     }
 
-    public void deleteOldBookings() {
-        logger.info("Running old bookings cleanup");
-        LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-        List<Booking> oldBookings = bookingRepository.findBookingsOlderThanThirtyDays(thirtyDaysAgo);
-        bookingRepository.deleteAll(oldBookings);
-        logger.info("Deleted {} old bookings", oldBookings.size());
-    }
-
     public Booking getBookingById(String bookingId) {
         logger.info("Fetching booking with ID: {}", bookingId);
-        Booking booking = bookingRepository.findByBookingId(bookingId);
+        Booking booking = isBookingId(bookingId) ? bookingRepository.findByBookingId(bookingId) : null;
         if (booking == null) {
             logger.warn("Booking not found for ID: {}", bookingId);
             throw new RuntimeException("Booking not found");
@@ -181,35 +173,27 @@ public class BookingService {
         return bookingRepository.findByStripeSessionId(sessionId).orElse(null);
     }
 
+    // Null when no booking has this id (malformed ids included)
     public Booking getBookingWithRoomAndBranch(String bookingId) {
         logger.info("Fetching booking with full room and branch for ID: {}", bookingId);
-        Booking booking = bookingRepository.findByBookingIdWithRoomAndBranch(bookingId);
-        if (booking == null) {
-            throw new RuntimeException("Booking not found");
-        }
-        return booking;
+        return isBookingId(bookingId) ? bookingRepository.findByBookingIdWithRoomAndBranch(bookingId) : null;
     }
 
     public BookingSummaryDTO getBookingSummary(String bookingId) {
-        Booking booking = getBookingById(bookingId);
-
-        BookingSummaryDTO dto = new BookingSummaryDTO();
-        dto.setBookingId(booking.getBookingId());
-        dto.setCustomerName(booking.getCustomerName());
-        dto.setEmail(booking.getEmail());
-        dto.setPhoneNumber(booking.getPhoneNumber());
-        dto.setBranchName(booking.getBranch().getName());
-        dto.setRoomNumber(String.valueOf(booking.getRoom().getRoomNumber()));
-        dto.setRoomType(booking.getRoom().getRoomType().name());
-        dto.setCheckIn(booking.getCheckIn());
-        dto.setCheckOut(booking.getCheckOut());
-        dto.setPrice(booking.getPrice());
-
-        return dto;
+        BookingSummaryDTO summary = isBookingId(bookingId) ? bookingRepository.findSummaryByBookingId(bookingId) : null;
+        if (summary == null) {
+            logger.warn("Booking not found for ID: {}", bookingId);
+            throw new RuntimeException("Booking not found");
+        }
+        return summary;
     }
 
-    public int getBookedRooms(Long branchId, String roomTypeStr, LocalDate checkIn, LocalDate checkOut) {
-        RoomType roomType = RoomType.valueOf(roomTypeStr.toUpperCase());
-        return bookingRepository.findOverlappingBookings(branchId, roomType, checkIn, checkOut).size();
+    // A malformed id cannot match any booking: answer "not found" without binding it to the uuid column
+    private static boolean isBookingId(String bookingId) {
+        if (UuidStringConverter.isCanonical(bookingId)) {
+            return true;
+        }
+        logger.warn("Malformed booking ID: {}", bookingId);
+        return false;
     }
 }
@@ -0,0 +1,38 @@
+package com.hotel.service;
+
+import com.hotel.model.Branch;
+import com.hotel.repository.BranchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Branch name -> id, so the filter path resolves a branch without a string lookup in the DB.
+// Only hits are cached; BranchService clears it whenever a branch is saved or deleted.
+@Component
+public class BranchDirectory {
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    // Branch id for the name, or null when there is no such branch
+    public Long resolveId(String name) {
+        Long id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        Branch branch = branchRepository.findByName(name);
+        if (branch == null) {
+            return null;
+        }
+        idsByName.put(name, branch.getId());
+        return branch.getId();
+    }
+
+    public void invalidate() {
+        idsByName.clear();
+    }
+}
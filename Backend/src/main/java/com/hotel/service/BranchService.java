@@ -5,8 +5,12 @@ import com.hotel.model.Branch;
 import com.hotel.repository.BranchRepository;
 import com.hotel.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,9 +24,30 @@ public class BranchService {
     @Autowired
     private RoomRepository roomRepository;
 
-    // ✅ Used by /api/branch/all
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private KeysetJsonExporter keysetJsonExporter;
+
+    @Autowired
+    private BranchDirectory branchDirectory;
+
+    // ✅ Used by /api/branch/all without paging parameters
     public List<Branch> getAllBranches() {
-        return branchRepository.findAll();
+        return branchRepository.findByIdGreaterThanOrderByIdAsc(0L, Pageable.unpaged());
+    }
+
+    // ✅ Used by /api/branch/all and /api/employee/branches/rooms (keyset paged)
+    public List<Branch> getBranchPage(Long afterId, int limit) {
+        return branchRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    // ✅ Used by /api/admin/export/branches
+    public void exportBranches(OutputStream out) throws IOException {
+        keysetJsonExporter.export(out,
+                afterId -> branchRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(KeysetJsonExporter.EXPORT_PAGE_SIZE)),
+                Branch::getId);
     }
 
     // ✅ Used by /api/branch/{id}
@@ -33,12 +58,18 @@ public class BranchService {
 
     // ✅ Used by POST /api/branch/add
     public Branch saveBranch(Branch branch) {
-        return branchRepository.save(branch);
+        Branch saved = branchRepository.save(branch);
+        branchDirectory.invalidate();
+        // New rooms (cascaded with the branch) only become bookable once the index knows them
+        occupancyIndex.rebuildAfterCommit();
+        return saved;
     }
 
     // ✅ Used by DELETE /api/branch/{id}
     public void deleteBranch(Long id) {
         branchRepository.deleteById(id);
+        branchDirectory.invalidate();
+        occupancyIndex.rebuildAfterCommit();
     }
 
     // ✅ Used by BookingController for branch room stats
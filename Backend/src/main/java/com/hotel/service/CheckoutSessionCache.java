@@ -0,0 +1,80 @@
+package com.hotel.service;
+
+import com.stripe.model.checkout.Session;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Checkout sessions by request key, so a double click or refresh gets the session it already has instead
+// of a new hold, price calculation and Session.create. Concurrent identical requests wait for the one in
+// flight. Entries die with the Stripe session (minus a margin so the client still has time to pay).
+// Each entry remembers what it was created for (room + dates), so a key reused for a different stay
+// is refused instead of answered with the other stay's session.
+@Component
+public class CheckoutSessionCache {
+
+    private static final long REUSE_MARGIN_SECONDS = 120;
+
+    private final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    public String getOrCreate(String key, String fingerprint, Supplier<Session> creator) {
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry current = sessions.compute(key, (k, cur) -> isReusable(cur) ? cur : mine);
+        if (current != mine) {
+            if (!current.fingerprint().equals(fingerprint)) {
+                throw new ConflictingRequestException("Idempotency key was already used for a different room or dates");
+            }
+            try {
+                return current.result().join().sessionId();
+            } catch (CompletionException e) {
+                // The request we waited on failed; its error applies to this identical request too
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Session session = creator.get();
+            mine.result().complete(new Cached(session.getId(), session.getExpiresAt() != null ? session.getExpiresAt() : 0));
+            return session.getId();
+        } catch (RuntimeException e) {
+            sessions.remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Once paid, a session must not be handed out again
+    public void evictSession(String sessionId) {
+        sessions.values().removeIf(entry -> {
+            CompletableFuture<Cached> f = entry.result();
+            return f.isDone() && !f.isCompletedExceptionally() && f.join().sessionId().equals(sessionId);
+        });
+    }
+
+    public void purgeExpired() {
+        sessions.values().removeIf(entry -> entry.result().isDone() && !isReusable(entry));
+    }
+
+    private static boolean isReusable(Entry entry) {
+        if (entry == null || entry.result().isCompletedExceptionally()) {
+            return false;
+        }
+        CompletableFuture<Cached> f = entry.result();
+        return !f.isDone() || f.join().expiresAt() - Instant.now().getEpochSecond() > REUSE_MARGIN_SECONDS;
+    }
+
+    // Thrown when a key comes back with a different fingerprint than the session cached under it
+    public static class ConflictingRequestException extends RuntimeException {
+        public ConflictingRequestException(String message) {
+            super(message);
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Cached> result) {}
+
+    private record Cached(String sessionId, long expiresAt) {}
+}
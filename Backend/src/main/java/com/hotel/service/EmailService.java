@@ -1,16 +1,20 @@
 package com.hotel.service;
 
 import com.hotel.model.Booking;
-import io.github.resilience4j.retry.annotation.Retry;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 public class EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
@@ -18,8 +22,14 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
-    @Retry(name = "emailRetry", fallbackMethod = "emailFallback")
-    public void sendEmail(String to, byte[] pdf, Booking booking) {
+    @Autowired
+    private MailDeliveryEngine mailDeliveryEngine;
+
+    @Value("${app.mail.send-timeout-seconds:120}")
+    private long sendTimeoutSeconds;
+
+    // Retries and dead-lettering are handled by OutboxService
+    public void sendEmail(String to, Resource pdf, Booking booking) {
         logger.info("Sending email to: {} for booking ID: {}", to, booking.getBookingId());
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -52,24 +62,31 @@ public class EmailService {
                     booking.getBookingId(),
                     booking.getRoom().getRoomNumber(),
                     booking.getRoom().getRoomType().name(),
-                    booking.getRoom().getBranch().getName(),
+                    booking.getBranch().getName(),
                     booking.getCheckIn().toString(),
                     booking.getCheckOut().toString()
             );
 
             helper.setText(htmlContent, true); // true for HTML
-            helper.addAttachment("booking_receipt.pdf", new ByteArrayResource(pdf));
+            helper.addAttachment("booking_receipt.pdf", pdf, "application/pdf");
 
-            mailSender.send(message);
+            // Sent on a pooled SMTP connection; waiting keeps the outbox retry semantics
+            CompletableFuture<Void> sent = mailDeliveryEngine.submit(message);
+            try {
+                sent.get(sendTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                // Still queued: drop it so the outbox retry does not send it twice
+                if (sent.cancel(false)) {
+                    throw e;
+                }
+                // Already on the wire: retrying could deliver it twice, so wait for the outcome (bounded by the SMTP timeouts)
+                logger.warn("Email to {} still sending after {}s, waiting for the SMTP result", to, sendTimeoutSeconds);
+                sent.get();
+            }
             logger.info("Email sent successfully to: {}", to);
         } catch (Exception e) {
             logger.error("Error sending email to: {}", to, e);
             throw new RuntimeException("Error sending email", e);
         }
     }
-
-    public void emailFallback(String to, byte[] pdf, Booking booking, Throwable t) {
-        logger.error("Failed to send email to: {} after retries, booking ID: {}", to, booking.getBookingId(), t);
-        // Optionally queue or store for manual retry
-    }
 }
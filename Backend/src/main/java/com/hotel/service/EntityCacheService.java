@@ -0,0 +1,66 @@
+package com.hotel.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Hit/miss numbers and manual eviction for the Hibernate second-level cache (regions in ehcache.xml)
+@Service
+public class EntityCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheService.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BranchDirectory branchDirectory;
+
+    public Map<String, Object> getStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hits", regionStats.getHitCount());
+            entry.put("misses", regionStats.getMissCount());
+            entry.put("puts", regionStats.getPutCount());
+            entry.put("entriesInMemory", regionStats.getElementCountInMemory());
+            regions.put(region, entry);
+        }
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("hits", statistics.getQueryCacheHitCount());
+        queries.put("misses", statistics.getQueryCacheMissCount());
+        queries.put("puts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("regions", regions);
+        stats.put("queryCache", queries);
+        stats.put("since", statistics.getStartTime());
+        return stats;
+    }
+
+    // For rows changed behind Hibernate's back (SQL console, migrations)
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+        branchDirectory.invalidate();
+        logger.info("Evicted all second-level cache regions");
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
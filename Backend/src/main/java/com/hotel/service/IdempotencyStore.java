@@ -0,0 +1,48 @@
+package com.hotel.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Recently handled Stripe event ids and checkout session ids, so webhook replays can be answered
+// without parsing the event or touching the DB. Bounded and expiring; the unique constraint on
+// booking.stripe_session_id stays the authority, this only short-circuits the common replay.
+@Component
+public class IdempotencyStore {
+
+    @Value("${app.stripe.idempotency.ttl-minutes:4320}")
+    private long ttlMinutes;
+
+    @Value("${app.stripe.idempotency.max-entries:20000}")
+    private int maxEntries;
+
+    // Key -> expiry (epoch millis). The TTL is fixed, so insertion order is also expiry order.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>();
+
+    public synchronized boolean contains(String key) {
+        purgeExpired(System.currentTimeMillis());
+        return entries.containsKey(key);
+    }
+
+    public synchronized void put(String key) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        entries.remove(key);
+        entries.put(key, now + ttlMinutes * 60_000);
+        if (entries.size() > maxEntries) {
+            Iterator<String> oldest = entries.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (it.hasNext() && it.next().getValue() <= now) {
+            it.remove();
+        }
+    }
+}
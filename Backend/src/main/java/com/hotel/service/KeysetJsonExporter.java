@@ -0,0 +1,42 @@
+package com.hotel.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+// Writes a whole table as one JSON array, reading it page by page with keyset queries
+// so memory stays at one page no matter how many rows there are.
+@Component
+public class KeysetJsonExporter {
+
+    static final int EXPORT_PAGE_SIZE = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // nextPage receives the last id written (0 to start) and returns up to EXPORT_PAGE_SIZE rows after it
+    public <T> void export(OutputStream out, Function<Long, List<T>> nextPage, Function<T, Long> idOf) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            long afterId = 0;
+            List<T> page;
+            do {
+                page = nextPage.apply(afterId);
+                for (T item : page) {
+                    generator.writeObject(item);
+                }
+                generator.flush();
+                if (!page.isEmpty()) {
+                    afterId = idOf.apply(page.get(page.size() - 1));
+                }
+            } while (page.size() == EXPORT_PAGE_SIZE);
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hotel.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Queued SMTP delivery over a fixed pool of persistent, authenticated connections.
+// Each sender thread owns one Transport and drains the queue in batches, so a burst of
+// confirmations pays for one connect + STARTTLS + AUTH per connection instead of per message.
+@Component
+public class MailDeliveryEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDeliveryEngine.class);
+
+    @Autowired private JavaMailSenderImpl mailSender;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${app.mail.pool-size:2}")
+    private int poolSize;
+
+    @Value("${app.mail.batch-size:20}")
+    private int batchSize;
+
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> senders = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private Timer deliveryTimer;
+    private Counter sentCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void start() {
+        deliveryTimer = Timer.builder("mail.delivery").description("SMTP send latency per message").register(meterRegistry);
+        sentCounter = Counter.builder("mail.sent").register(meterRegistry);
+        failedCounter = Counter.builder("mail.failed").register(meterRegistry);
+        meterRegistry.gauge("mail.queue.size", queue, BlockingQueue::size);
+
+        for (int i = 1; i <= poolSize; i++) {
+            Thread sender = new Thread(this::senderLoop, "smtp-sender-" + i);
+            sender.setDaemon(true);
+            sender.start();
+            senders.add(sender);
+        }
+    }
+
+    // Completes once the message has been accepted by the SMTP server. cancel() only succeeds while the
+    // message is still queued; once a sender has picked it up it returns false and the future reports the outcome.
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        Delivery delivery = new Delivery(message);
+        queue.add(delivery);
+        return delivery;
+    }
+
+    private void senderLoop() {
+        Transport transport = null;
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                transport = connected(transport);
+                for (Delivery delivery : batch) {
+                    transport = deliver(transport, delivery);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Could not connect: fail what is left of the batch and let the outbox retry it
+                logger.error("SMTP connection failed: {}", e.getMessage());
+                for (Delivery delivery : batch) {
+                    if (delivery.completeExceptionally(e)) {
+                        failedCounter.increment();
+                    }
+                }
+                transport = close(transport);
+            } finally {
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    // Sends one message, reconnecting once if the pooled connection turned out to be stale
+    private Transport deliver(Transport transport, Delivery delivery) throws MessagingException {
+        if (!delivery.claim()) {
+            return transport; // cancelled by a caller that gave up waiting
+        }
+        long start = System.nanoTime();
+        try {
+            send(transport, delivery.message());
+        } catch (MessagingException first) {
+            if (!isConnectionFailure(transport, first)) {
+                // The server answered (e.g. rejected some recipients): resending could duplicate the mail
+                failedCounter.increment();
+                delivery.completeExceptionally(first);
+                return transport;
+            }
+            transport = connected(close(transport));
+            try {
+                send(transport, delivery.message());
+            } catch (MessagingException e) {
+                failedCounter.increment();
+                delivery.completeExceptionally(e);
+                return transport;
+            }
+        }
+        deliveryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        sentCounter.increment();
+        delivery.complete(null);
+        return transport;
+    }
+
+    private static void send(Transport transport, MimeMessage message) throws MessagingException {
+        message.saveChanges();
+        transport.sendMessage(message, message.getAllRecipients());
+    }
+
+    // Only a dropped connection is safe to retry; once any recipient was accepted the message went out
+    static boolean isConnectionFailure(Transport transport, MessagingException e) {
+        if (e instanceof SendFailedException failed) {
+            Address[] sent = failed.getValidSentAddresses();
+            if (sent != null && sent.length > 0) {
+                return false;
+            }
+        }
+        if (!transport.isConnected()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns a live connection, opening (and authenticating) a new one when needed
+    private Transport connected(Transport transport) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        close(transport);
+        // Same fallback as JavaMailSenderImpl: no explicit protocol means the session's default transport
+        String protocol = mailSender.getProtocol();
+        Transport fresh = protocol != null
+                ? mailSender.getSession().getTransport(protocol)
+                : mailSender.getSession().getTransport();
+        fresh.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        logger.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return fresh;
+    }
+
+    private static Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // connection is being discarded anyway
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        senders.forEach(Thread::interrupt);
+    }
+
+    // The caller's future; claimed exactly once, either by the sender about to transmit it or by cancel()
+    private static final class Delivery extends CompletableFuture<Void> {
+        private final MimeMessage message;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Delivery(MimeMessage message) {
+            this.message = message;
+        }
+
+        MimeMessage message() {
+            return message;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claim() && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
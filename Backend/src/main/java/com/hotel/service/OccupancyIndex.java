@@ -0,0 +1,348 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.model.RoomType;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-memory nightly occupancy per branch and room type, plus a sorted stay calendar per room,
+// so availability never has to hit Postgres.
+// A stay [checkIn, checkOut) occupies the nights checkIn .. checkOut - 1.
+@Component
+public class OccupancyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyIndex.class);
+
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private MeterRegistry meterRegistry;
+
+    // branchId -> room type -> nightly counters; replaced wholesale on rebuild
+    private volatile Map<Long, EnumMap<RoomType, NightlyCounter>> counters = new ConcurrentHashMap<>();
+
+    // roomId -> stays of that room; replaced wholesale on rebuild
+    private volatile Map<Long, RoomCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Stays that checked out before this day are not loaded, so only stays starting on or after it are exact
+    private volatile LocalDate trackedFrom = LocalDate.MAX;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Told about every count change, e.g. so RateEngine can drop rates derived from the old counts
+    public interface Listener {
+
+        // Nights [checkIn, checkOut) of the branch/type changed by one booking; called after the counts are updated
+        void nightsChanged(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut);
+
+        // Every count (and room list) may have changed
+        void rebuilt();
+
+        // Nights before today were dropped by the daily roll
+        void rolled(LocalDate today);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // Reloads rooms and every ACTIVE stay that has not checked out yet
+    public synchronized void rebuild() {
+        Map<Long, EnumMap<RoomType, NightlyCounter>> fresh = new ConcurrentHashMap<>();
+        Map<Long, RoomCalendar> freshCalendars = new ConcurrentHashMap<>();
+
+        LocalDate today = LocalDate.now();
+
+        Map<NightlyCounter, List<Long>> roomsByCounter = new IdentityHashMap<>();
+        for (Object[] row : roomRepository.findRoomKeys()) {
+            roomsByCounter.computeIfAbsent(counterFor(fresh, (Long) row[0], (RoomType) row[1]), c -> new ArrayList<>())
+                    .add((Long) row[2]);
+        }
+        roomsByCounter.forEach((counter, ids) -> counter.setRoomIds(ids.stream().mapToLong(Long::longValue).toArray()));
+
+        // Group stays per counter first so each counter is filled by one sweep instead of per-night increments
+        Map<NightlyCounter, List<long[]>> staysByCounter = new IdentityHashMap<>();
+        List<Object[]> stays = bookingRepository.findActiveStaysEndingAfter(today);
+        for (Object[] row : stays) {
+            long checkIn = ((LocalDate) row[2]).toEpochDay();
+            long checkOut = ((LocalDate) row[3]).toEpochDay();
+            staysByCounter.computeIfAbsent(counterFor(fresh, (Long) row[0], (RoomType) row[1]), c -> new ArrayList<>())
+                    .add(new long[]{checkIn, checkOut});
+            freshCalendars.computeIfAbsent((Long) row[4], id -> new RoomCalendar())
+                    .add((Long) row[5], checkIn, checkOut);
+        }
+        staysByCounter.forEach(NightlyCounter::load);
+
+        counters = fresh;
+        calendars = freshCalendars;
+        trackedFrom = today;
+        listeners.forEach(Listener::rebuilt);
+        logger.info("Occupancy index built: {} branches, {} active stays", fresh.size(), stays.size());
+    }
+
+    // Daily: forgets nights before today and stays that have checked out, so the index only ever holds
+    // what a rebuild would load instead of growing with every past stay
+    public void roll() {
+        roll(LocalDate.now());
+    }
+
+    synchronized void roll(LocalDate today) {
+        if (!today.isAfter(trackedFrom)) {
+            return;
+        }
+        long day = today.toEpochDay();
+        counters.values().forEach(byType -> byType.values().forEach(counter -> counter.trimBefore(day)));
+        int before = calendars.size();
+        calendars.values().removeIf(calendar -> calendar.trimBefore(day));
+        trackedFrom = today;
+        listeners.forEach(listener -> listener.rolled(today));
+        logger.info("Occupancy index rolled to {}: dropped {} idle room calendars", today, before - calendars.size());
+    }
+
+    // Rebuilds once the surrounding transaction commits (right away when there is none), so the reload sees the change
+    public void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    // Idempotent per booking: the room calendar is the record of what was counted, so a booking a
+    // concurrent rebuild already loaded is not counted twice (and a release it already dropped not twice removed)
+    public synchronized void recordBooking(Booking booking) {
+        boolean added = calendars.computeIfAbsent(booking.getRoom().getId(), id -> new RoomCalendar())
+                .add(booking.getId(), booking.getCheckIn().toEpochDay(), booking.getCheckOut().toEpochDay());
+        if (added) {
+            counterFor(counters, booking.getBranch().getId(), booking.getRoom().getRoomType())
+                    .add(booking.getCheckIn(), booking.getCheckOut(), 1);
+            notifyChanged(booking);
+        }
+    }
+
+    public synchronized void releaseBooking(Booking booking) {
+        RoomCalendar calendar = calendars.get(booking.getRoom().getId());
+        if (calendar != null
+                && calendar.remove(booking.getId(), booking.getCheckIn().toEpochDay(), booking.getCheckOut().toEpochDay())) {
+            int underflows = counterFor(counters, booking.getBranch().getId(), booking.getRoom().getRoomType())
+                    .add(booking.getCheckIn(), booking.getCheckOut(), -1);
+            if (underflows > 0) {
+                // The counts no longer match the stays they were built from; reload rather than keep guessing
+                logger.warn("Occupancy underflow on {} night(s) releasing booking {} ({} / {}, {} to {}); rebuilding the index",
+                        underflows, booking.getId(), booking.getBranch().getId(), booking.getRoom().getRoomType(),
+                        booking.getCheckIn(), booking.getCheckOut());
+                meterRegistry.counter("occupancy.index.underflow").increment(underflows);
+                rebuildAfterCommit();
+            }
+            notifyChanged(booking);
+        }
+    }
+
+    private void notifyChanged(Booking booking) {
+        for (Listener listener : listeners) {
+            listener.nightsChanged(booking.getBranch().getId(), booking.getRoom().getRoomType(),
+                    booking.getCheckIn(), booking.getCheckOut());
+        }
+    }
+
+    public LocalDate getTrackedFrom() {
+        return trackedFrom;
+    }
+
+    // A room is free unless some stay has checkIn < b.checkOut AND checkOut > b.checkIn
+    public boolean isRoomFree(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar == null || calendar.isFree(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    // Free nights between the room's previous check-out and the day, -1 when unbounded
+    public long gapBefore(long roomId, LocalDate day) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar == null ? -1 : calendar.gapBefore(day.toEpochDay());
+    }
+
+    // Free nights between the day and the room's next check-in, -1 when unbounded
+    public long gapAfter(long roomId, LocalDate day) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar == null ? -1 : calendar.gapAfter(day.toEpochDay());
+    }
+
+    public int totalRooms(Long branchId, RoomType roomType) {
+        NightlyCounter counter = find(branchId, roomType);
+        return counter == null ? 0 : counter.getRoomIds().length;
+    }
+
+    // Room ids of a branch/type combo, ordered by room number
+    public long[] roomIds(Long branchId, RoomType roomType) {
+        NightlyCounter counter = find(branchId, roomType);
+        return counter == null ? new long[0] : counter.getRoomIds();
+    }
+
+    // Highest number of rooms taken on any single night of the stay
+    public int peakOccupancy(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        NightlyCounter counter = find(branchId, roomType);
+        return counter == null ? 0 : counter.peak(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    // Rooms taken on each of the nights from, from + 1, ..., from + days - 1
+    public int[] nightlyOccupancy(Long branchId, RoomType roomType, LocalDate from, int days) {
+        NightlyCounter counter = find(branchId, roomType);
+        return counter == null ? new int[days] : counter.slice(from.toEpochDay(), days);
+    }
+
+    private NightlyCounter find(Long branchId, RoomType roomType) {
+        EnumMap<RoomType, NightlyCounter> byType = counters.get(branchId);
+        return byType == null ? null : byType.get(roomType);
+    }
+
+    private static NightlyCounter counterFor(Map<Long, EnumMap<RoomType, NightlyCounter>> map,
+                                             Long branchId, RoomType roomType) {
+        return map.computeIfAbsent(branchId, id -> {
+            EnumMap<RoomType, NightlyCounter> byType = new EnumMap<>(RoomType.class);
+            for (RoomType type : RoomType.values()) {
+                byType.put(type, new NightlyCounter());
+            }
+            return byType;
+        }).get(roomType);
+    }
+
+    // Rooms of one branch/type and the rooms taken per night, as a growable int[] starting at firstDay (epoch day)
+    private static final class NightlyCounter {
+        private volatile long[] roomIds = new long[0];
+        private long firstDay;
+        private int[] nights = new int[0];
+
+        long[] getRoomIds() {
+            return roomIds;
+        }
+
+        void setRoomIds(long[] roomIds) {
+            this.roomIds = roomIds;
+        }
+
+        // Returns how many nights would have gone below zero (and were held at zero instead)
+        synchronized int add(LocalDate checkIn, LocalDate checkOut, int delta) {
+            long from = checkIn.toEpochDay();
+            long to = checkOut.toEpochDay();
+            if (delta < 0) {
+                from = Math.max(from, firstDay); // nights dropped by a roll have nothing left to subtract from
+            }
+            if (to <= from) {
+                return 0;
+            }
+            ensureCovers(from, to);
+            int underflows = 0;
+            for (long day = from; day < to; day++) {
+                int slot = (int) (day - firstDay);
+                int count = nights[slot] + delta;
+                if (count < 0) {
+                    underflows++;
+                    count = 0;
+                }
+                nights[slot] = count;
+            }
+            return underflows;
+        }
+
+        // Sweep over check-in (+1) and check-out (-1) events, then a running sum gives each night's count
+        synchronized void load(List<long[]> stays) {
+            long from = Long.MAX_VALUE;
+            long to = Long.MIN_VALUE;
+            for (long[] stay : stays) {
+                if (stay[1] > stay[0]) {
+                    from = Math.min(from, stay[0]);
+                    to = Math.max(to, stay[1]);
+                }
+            }
+            if (to <= from) {
+                return;
+            }
+            int[] events = new int[(int) (to - from) + 1];
+            for (long[] stay : stays) {
+                if (stay[1] > stay[0]) {
+                    events[(int) (stay[0] - from)]++;
+                    events[(int) (stay[1] - from)]--;
+                }
+            }
+            ensureCovers(from, to);
+            int running = 0;
+            for (long day = from; day < to; day++) {
+                running += events[(int) (day - from)];
+                nights[(int) (day - firstDay)] += running;
+            }
+        }
+
+        synchronized void trimBefore(long day) {
+            if (day <= firstDay) {
+                return;
+            }
+            int keep = (int) Math.max(0, firstDay + nights.length - day);
+            nights = keep == 0 ? new int[0] : Arrays.copyOfRange(nights, nights.length - keep, nights.length);
+            firstDay = day;
+        }
+
+        synchronized int[] slice(long from, int days) {
+            int[] result = new int[days];
+            long start = Math.max(from, firstDay);
+            long end = Math.min(from + days, firstDay + nights.length);
+            if (start < end) {
+                System.arraycopy(nights, (int) (start - firstDay), result, (int) (start - from), (int) (end - start));
+            }
+            return result;
+        }
+
+        synchronized int peak(long from, long to) {
+            long start = Math.max(from, firstDay);
+            long end = Math.min(to, firstDay + nights.length);
+            int peak = 0;
+            for (long day = start; day < end; day++) {
+                peak = Math.max(peak, nights[(int) (day - firstDay)]);
+            }
+            return peak;
+        }
+
+        private void ensureCovers(long from, long to) {
+            if (nights.length == 0) {
+                firstDay = from;
+                nights = new int[(int) (to - from)];
+                return;
+            }
+            long newFirst = Math.min(firstDay, from);
+            long newEnd = Math.max(firstDay + nights.length, to);
+            if (newFirst == firstDay && newEnd == firstDay + nights.length) {
+                return;
+            }
+            int[] grown = new int[(int) (newEnd - newFirst)];
+            System.arraycopy(nights, 0, grown, (int) (firstDay - newFirst), nights.length);
+            firstDay = newFirst;
+            nights = grown;
+        }
+    }
+}
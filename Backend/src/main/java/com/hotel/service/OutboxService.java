@@ -0,0 +1,164 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.model.OutboxEvent;
+import com.hotel.model.OutboxTask;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+// Post-booking side effects (receipt email, partner webhook) as outbox rows. They are written in the
+// booking's transaction and run later by OutboxWorker with exponential backoff; rows that keep failing
+// are dead-lettered for an admin to replay.
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    // A claimed row becomes due again after this if its worker dies mid-task
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Value("${app.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private ReceiptStore receiptStore;
+    @Autowired private EmailService emailService;
+    @Autowired private WebhookService webhookService;
+
+    // Must join the caller's transaction so the rows commit (or roll back) with the booking
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueBookingConfirmed(String bookingId) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxTask task : OutboxTask.values()) {
+            OutboxEvent event = new OutboxEvent();
+            event.setBookingId(bookingId);
+            event.setTask(task);
+            event.setStatus("PENDING");
+            event.setAttempts(0);
+            event.setNextAttemptAt(now);
+            event.setCreatedAt(now);
+            event.setUpdatedAt(now);
+            outboxEventRepository.save(event);
+        }
+    }
+
+    // Locks up to limit due rows, leases them and returns their ids
+    @Transactional
+    public List<Long> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = outboxEventRepository.lockDue(now, limit).stream().map(OutboxEvent::getId).toList();
+        if (!ids.isEmpty()) {
+            outboxEventRepository.lease(ids, now, now.plus(LEASE));
+        }
+        return ids;
+    }
+
+    // Runs one task outside any transaction; a slow SMTP server or partner must not hold a DB connection
+    public void process(Long eventId) {
+        OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+        if (event == null || !"PENDING".equals(event.getStatus())) {
+            return;
+        }
+
+        try {
+            Booking booking = bookingRepository.findByBookingIdWithRoomAndBranch(event.getBookingId());
+            if (booking == null) {
+                // Archived by retention (or deleted): nothing left to send, retrying cannot help
+                logger.warn("Outbox {} skipped, booking {} no longer exists", event.getTask(), event.getBookingId());
+                markSkipped(event);
+                return;
+            }
+            switch (event.getTask()) {
+                case RECEIPT_EMAIL -> {
+                    emailService.sendEmail(booking.getEmail(), new FileSystemResource(receiptStore.receiptFor(booking)), booking);
+                    markDone(event);
+                }
+                // Async: the worker thread is free again once the POST is in flight; the lease covers the wait
+                case WEBHOOK -> webhookService.notifyWebhook(booking).whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        markDone(event);
+                    } else {
+                        markFailed(event, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            markFailed(event, e);
+        }
+    }
+
+    public List<OutboxEvent> getDeadLetters() {
+        return outboxEventRepository.findByStatusOrderByIdAsc("DEAD");
+    }
+
+    // Admin replay: puts a row back in the queue with a fresh attempt budget
+    public OutboxEvent replay(Long eventId) {
+        OutboxEvent event = outboxEventRepository.findById(eventId)
+                .orElseThrow(() -> new RuntimeException("Outbox event not found: " + eventId));
+        LocalDateTime now = LocalDateTime.now();
+        event.setStatus("PENDING");
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        event.setUpdatedAt(now);
+        logger.info("Replaying outbox event {} ({}) for booking {}", event.getId(), event.getTask(), event.getBookingId());
+        return outboxEventRepository.save(event);
+    }
+
+    private void markDone(OutboxEvent event) {
+        event.setStatus("DONE");
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(null);
+        event.setUpdatedAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+        logger.info("Outbox {} done for booking {}", event.getTask(), event.getBookingId());
+    }
+
+    private void markSkipped(OutboxEvent event) {
+        event.setStatus("DONE");
+        event.setLastError("Skipped: booking no longer exists");
+        event.setUpdatedAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+
+    private void markFailed(OutboxEvent event, Throwable e) {
+        int attempts = event.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        event.setAttempts(attempts);
+        event.setLastError(truncate(String.valueOf(e.getMessage())));
+        event.setUpdatedAt(now);
+
+        if (attempts >= maxAttempts) {
+            event.setStatus("DEAD");
+            logger.error("Outbox {} for booking {} dead-lettered after {} attempts",
+                    event.getTask(), event.getBookingId(), attempts, e);
+        } else {
+            Duration backoff = Duration.ofSeconds(initialBackoffSeconds).multipliedBy(1L << (attempts - 1));
+            event.setNextAttemptAt(now.plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            logger.warn("Outbox {} for booking {} failed (attempt {}), retrying at {}: {}",
+                    event.getTask(), event.getBookingId(), attempts, event.getNextAttemptAt(), e.getMessage());
+        }
+        outboxEventRepository.save(event);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
@@ -1,55 +1,150 @@
 package com.hotel.service;
 
 import com.hotel.model.Booking;
+import com.hotel.model.Branch;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
 import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+// Receipt rendering on a fixed pool of warm ITextRenderers. The pool size is also the render concurrency,
+// so PDF layout can occupy at most that many CPUs however many requests or outbox workers ask for receipts.
 @Service
 public class PdfService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PdfService.class);
+
     @Value("${app.hotel.name}")
     private String hotelName;
 
+    @Value("${app.pdf.renderers:2}")
+    private int renderers;
+
+    @Value("${app.pdf.render-timeout-seconds:30}")
+    private long renderTimeoutSeconds;
+
+    // Optional directory of .ttf/.otf files registered with every renderer at startup
+    @Value("${app.pdf.font-dir:}")
+    private String fontDir;
+
     @Autowired
     private TemplateEngine templateEngine;
 
+    private BlockingQueue<ITextRenderer> pool;
+
+    @PostConstruct
+    public void init() {
+        pool = new ArrayBlockingQueue<>(renderers);
+        for (int i = 0; i < renderers; i++) {
+            pool.add(newRenderer());
+        }
+        // One throwaway render per renderer caches the parsed template, CSS and fonts before real traffic
+        for (int i = 0; i < renderers; i++) {
+            try {
+                writeReceipt(sampleBooking(), OutputStream.nullOutputStream());
+            } catch (RuntimeException e) {
+                logger.warn("Receipt renderer warm-up failed: {}", e.getMessage());
+            }
+        }
+    }
+
     public byte[] generateReceipt(Booking booking) {
-        try {
-            // Prepare dynamic values for the HTML template
-            Context context = new Context();
-            context.setVariable("hotelName", hotelName);
-            context.setVariable("booking", booking);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeReceipt(booking, baos);
+        return baos.toByteArray();
+    }
 
-            // Render HTML using Thymeleaf
-            String htmlContent = templateEngine.process("receipt", context);
+    // Streams the PDF straight into out (a file, HTTP response or attachment stream)
+    public void writeReceipt(Booking booking, OutputStream out) {
+        // Prepare dynamic values for the HTML template
+        Context context = new Context();
+        context.setVariable("hotelName", hotelName);
+        context.setVariable("booking", booking);
 
-            // ✅ Log the generated HTML for debugging
-            System.out.println("🔍 HTML to render:\n" + htmlContent);
+        // Render HTML using Thymeleaf (parsed template is cached by the engine)
+        String htmlContent = templateEngine.process("receipt", context);
+        logger.debug("Rendering receipt for booking {}", booking.getBookingId());
 
+        ITextRenderer renderer = borrow();
+        boolean healthy = false;
+        try {
             // Convert HTML to PDF using Flying Saucer
-            ITextRenderer renderer = new ITextRenderer();
             renderer.setDocumentFromString(htmlContent);
             renderer.layout();
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            renderer.createPDF(baos);
-
-            return baos.toByteArray();
-
+            renderer.createPDF(out);
+            healthy = true;
         } catch (DocumentException e) {
             throw new RuntimeException("Error generating PDF", e);
+        } finally {
+            // A renderer that failed mid-document may hold half-built state; replace it
+            pool.add(healthy ? renderer : newRenderer());
         }
     }
 
-    public ByteArrayResource getPdfAsResource(Booking booking) {
-        return new ByteArrayResource(generateReceipt(booking));
+    private ITextRenderer borrow() {
+        try {
+            ITextRenderer renderer = pool.poll(renderTimeoutSeconds, TimeUnit.SECONDS);
+            if (renderer == null) {
+                throw new RuntimeException("Receipt renderer busy, please try again");
+            }
+            return renderer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a receipt renderer", e);
+        }
+    }
+
+    private ITextRenderer newRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+        if (!fontDir.isBlank()) {
+            try {
+                renderer.getFontResolver().addFontDirectory(fontDir, BaseFont.EMBEDDED);
+            } catch (DocumentException | IOException e) {
+                logger.warn("Could not load receipt fonts from {}: {}", fontDir, e.getMessage());
+            }
+        }
+        return renderer;
+    }
+
+    private static Booking sampleBooking() {
+        Branch branch = new Branch();
+        branch.setName("Warm-up");
+        Room room = new Room();
+        room.setRoomNumber("000");
+        room.setRoomType(RoomType.STANDARD);
+        room.setBranch(branch);
+
+        Booking booking = new Booking();
+        booking.setBookingId("warm-up");
+        booking.setCustomerId(0L);
+        booking.setCustomerName("Warm-up");
+        booking.setEmail("warm-up@example.com");
+        booking.setPhoneNumber("0000000000");
+        booking.setBranch(branch);
+        booking.setRoom(room);
+        booking.setCheckIn(LocalDate.now());
+        booking.setCheckOut(LocalDate.now().plusDays(1));
+        booking.setCreatedAt(LocalDate.now());
+        booking.setBookingTime(LocalTime.now());
+        booking.setStatus("ACTIVE");
+        return booking;
     }
 }
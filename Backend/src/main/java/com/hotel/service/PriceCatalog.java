@@ -0,0 +1,90 @@
+package com.hotel.service;
+
+import com.hotel.model.Price;
+import com.hotel.model.RoomType;
+import com.hotel.repository.PriceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Nightly prices held in memory so quoting never touches the DB. The whole catalog is one immutable
+// snapshot behind a volatile field: an update writes the row, then swaps in a new snapshot, so readers
+// see either the old prices or the new ones, never a mix.
+@Component
+public class PriceCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceCatalog.class);
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(new EnumMap<>(RoomType.class), List.of(), 0);
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public double pricePerNight(RoomType roomType) {
+        Double price = snapshot.perNight().get(roomType);
+        if (price == null) {
+            // Read-through: a row added behind our back (e.g. by a migration) shows up on the next miss
+            price = load().perNight().get(roomType);
+            if (price == null) {
+                throw new RuntimeException("Price not found for room type: " + roomType);
+            }
+        }
+        return price;
+    }
+
+    // Bumped on every reload; lets RateEngine cache rates derived from these prices
+    public long version() {
+        return snapshot.version();
+    }
+
+    // Rows as served by /api/price
+    public List<Price> getPrices() {
+        return snapshot.rows();
+    }
+
+    public synchronized Price updatePrice(RoomType roomType, double pricePerNight) {
+        Price price = priceRepository.findByRoomType(roomType.name()).orElseGet(Price::new);
+        price.setRoomType(roomType.name());
+        price.setPricePerNight(pricePerNight);
+        Price saved = priceRepository.save(price);
+        // Committed; now publish
+        reload();
+        logger.info("Price for {} set to {}", roomType, pricePerNight);
+        return saved;
+    }
+
+    public void reload() {
+        load();
+    }
+
+    private synchronized Snapshot load() {
+        EnumMap<RoomType, Double> perNight = new EnumMap<>(RoomType.class);
+        List<Price> rows = new ArrayList<>();
+        for (Price price : priceRepository.findAll()) {
+            try {
+                perNight.put(RoomType.valueOf(price.getRoomType()), price.getPricePerNight());
+                rows.add(price);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring price row for unknown room type: {}", price.getRoomType());
+            }
+        }
+        Snapshot next = new Snapshot(Collections.unmodifiableMap(perNight), Collections.unmodifiableList(rows), snapshot.version() + 1);
+        snapshot = next;
+        return next;
+    }
+
+    private record Snapshot(Map<RoomType, Double> perNight, List<Price> rows, long version) {}
+}
@@ -0,0 +1,210 @@
+package com.hotel.service;
+
+import com.hotel.model.RoomType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Nightly rates per branch and room type for the next horizonDays nights, as a double[] with its prefix
+// sums, so any stay inside the horizon is quoted with two array reads and no allocation.
+// A night's rate = base price (PriceCatalog) x weekend multiplier x occupancy uplift (OccupancyIndex).
+// A calendar is rebuilt when its prices change, the day rolls over, or a booking moves a night across
+// the high-occupancy threshold; bookings that leave every rate as it was do not touch it.
+@Component
+public class RateEngine implements OccupancyIndex.Listener {
+
+    @Autowired private PriceCatalog priceCatalog;
+    @Autowired private OccupancyIndex occupancyIndex;
+
+    @Value("${app.rates.horizon-days:400}")
+    private int horizonDays;
+
+    // Friday and Saturday nights
+    @Value("${app.rates.weekend-multiplier:1.0}")
+    private double weekendMultiplier;
+
+    // Share of the branch's rooms of that type already taken on a night at which the uplift applies
+    @Value("${app.rates.high-occupancy-threshold:0.8}")
+    private double highOccupancyThreshold;
+
+    @Value("${app.rates.high-occupancy-multiplier:1.0}")
+    private double highOccupancyMultiplier;
+
+    // branchId -> one slot per room type, created once per branch and never replaced, so a quote finds
+    // its calendar with a map get and an array index instead of allocating a lookup key
+    private final Map<Long, EnumMap<RoomType, Slot>> slots = new ConcurrentHashMap<>();
+
+    // Bumped for every slot on an index rebuild; a calendar built under an older generation is stale
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    // First night of every calendar, moved forward by the daily occupancy roll instead of reading the clock per quote
+    private volatile long today;
+
+    @PostConstruct
+    public void init() {
+        today = LocalDate.now().toEpochDay();
+        occupancyIndex.addListener(this);
+    }
+
+    // Total room price for the nights [checkIn, checkOut)
+    public double quote(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (to <= from) {
+            return 0;
+        }
+        RateCalendar calendar = calendarFor(branchId, roomType);
+        long first = calendar.firstDay();
+        if (from >= first && to <= first + horizonDays) {
+            double[] prefix = calendar.prefix();
+            return prefix[(int) (to - first)] - prefix[(int) (from - first)];
+        }
+
+        // Past dates or beyond the horizon: no occupancy data, so base x weekend only
+        double base = priceCatalog.pricePerNight(roomType);
+        double total = 0;
+        for (long day = from; day < to; day++) {
+            total += base * weekendFactor(day);
+        }
+        return total;
+    }
+
+    @Override
+    public void nightsChanged(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        if (!occupancyMatters()) {
+            return;
+        }
+        Slot slot = slotFor(branchId, roomType);
+        RateCalendar calendar = slot.calendar;
+        // No current calendar to compare against (one may be building right now): invalidate to be safe
+        if (calendar == null || calendar.generation() != generation(slot)) {
+            slot.generation.incrementAndGet();
+            return;
+        }
+        long start = Math.max(checkIn.toEpochDay(), calendar.firstDay());
+        long end = Math.min(checkOut.toEpochDay(), calendar.firstDay() + horizonDays);
+        if (start >= end) {
+            return;
+        }
+        int totalRooms = occupancyIndex.totalRooms(branchId, roomType);
+        int[] taken = occupancyIndex.nightlyOccupancy(branchId, roomType, LocalDate.ofEpochDay(start), (int) (end - start));
+        for (int i = 0; i < taken.length; i++) {
+            if (isHigh(taken[i], totalRooms) != calendar.high()[(int) (start - calendar.firstDay()) + i]) {
+                slot.generation.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void rebuilt() {
+        rebuilds.incrementAndGet();
+    }
+
+    // Calendars still starting on an earlier day are rebuilt by the next quote that needs them
+    @Override
+    public void rolled(LocalDate day) {
+        today = day.toEpochDay();
+    }
+
+    // Only callers of the same branch/type wait for a rebuild; the others keep quoting
+    private RateCalendar calendarFor(Long branchId, RoomType roomType) {
+        Slot slot = slotFor(branchId, roomType);
+        long firstDay = today;
+        long priceVersion = priceCatalog.version();
+        RateCalendar calendar = slot.calendar;
+        if (calendar != null && isCurrent(calendar, slot, firstDay, priceVersion)) {
+            return calendar;
+        }
+        synchronized (slot) {
+            calendar = slot.calendar;
+            if (calendar == null || !isCurrent(calendar, slot, firstDay, priceVersion)) {
+                calendar = build(branchId, roomType, slot, firstDay, priceVersion);
+                slot.calendar = calendar;
+            }
+            return calendar;
+        }
+    }
+
+    private Slot slotFor(Long branchId, RoomType roomType) {
+        EnumMap<RoomType, Slot> byType = slots.get(branchId);
+        if (byType == null) {
+            byType = slots.computeIfAbsent(branchId, id -> newSlots());
+        }
+        return byType.get(roomType);
+    }
+
+    private static EnumMap<RoomType, Slot> newSlots() {
+        EnumMap<RoomType, Slot> byType = new EnumMap<>(RoomType.class);
+        for (RoomType roomType : RoomType.values()) {
+            byType.put(roomType, new Slot());
+        }
+        return byType;
+    }
+
+    private boolean isCurrent(RateCalendar calendar, Slot slot, long firstDay, long priceVersion) {
+        return calendar.firstDay() == firstDay
+                && calendar.priceVersion() == priceVersion
+                && calendar.generation() == generation(slot);
+    }
+
+    // Generation is read before the counts, so a change that lands mid-build leaves the result stale, not wrong
+    private RateCalendar build(Long branchId, RoomType roomType, Slot slot, long firstDay, long priceVersion) {
+        long generation = generation(slot);
+        double base = priceCatalog.pricePerNight(roomType);
+        boolean[] high = new boolean[horizonDays];
+        if (occupancyMatters()) {
+            int totalRooms = occupancyIndex.totalRooms(branchId, roomType);
+            int[] taken = occupancyIndex.nightlyOccupancy(branchId, roomType, LocalDate.ofEpochDay(firstDay), horizonDays);
+            for (int i = 0; i < horizonDays; i++) {
+                high[i] = isHigh(taken[i], totalRooms);
+            }
+        }
+
+        double[] prefix = new double[horizonDays + 1];
+        for (int i = 0; i < horizonDays; i++) {
+            double rate = base * weekendFactor(firstDay + i);
+            if (high[i]) {
+                rate *= highOccupancyMultiplier;
+            }
+            prefix[i + 1] = prefix[i] + rate;
+        }
+        return new RateCalendar(firstDay, prefix, high, priceVersion, generation);
+    }
+
+    // With no uplift configured, occupancy cannot change a rate and bookings are ignored entirely
+    private boolean occupancyMatters() {
+        return highOccupancyMultiplier != 1.0;
+    }
+
+    private boolean isHigh(int taken, int totalRooms) {
+        return totalRooms > 0 && (double) taken / totalRooms >= highOccupancyThreshold;
+    }
+
+    private long generation(Slot slot) {
+        return rebuilds.get() + slot.generation.get();
+    }
+
+    private double weekendFactor(long epochDay) {
+        // Epoch day 0 (1970-01-01) was a Thursday, so +1 is Friday and +2 is Saturday
+        long dayOfWeek = Math.floorMod(epochDay, 7);
+        return dayOfWeek == 1 || dayOfWeek == 2 ? weekendMultiplier : 1.0;
+    }
+
+    // The current calendar of one branch/type; its monitor serializes rebuilds of that calendar only
+    private static final class Slot {
+        private volatile RateCalendar calendar;
+        // Bumped when a booking flips an uplift of this branch/type
+        private final AtomicLong generation = new AtomicLong();
+    }
+
+    // high[i]: night firstDay + i carries the occupancy uplift
+    private record RateCalendar(long firstDay, double[] prefix, boolean[] high, long priceVersion, long generation) {}
+}
@@ -0,0 +1,134 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams every receipt of a branch and date range as one ZIP. Bookings are read by keyset pages,
+// receipts come from ReceiptStore (rendered in parallel when missing) and each entry is written as
+// soon as its file is ready. At most two receipts per worker are in flight, so memory does not grow with the export.
+@Service
+public class ReceiptExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptExportService.class);
+
+    private static final int PAGE_SIZE = 100;
+
+    @Value("${app.receipts.export-workers:2}")
+    private int workers;
+
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private ReceiptStore receiptStore;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "receipt-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void exportZip(Long branchId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        int window = workers * 2;
+        ExecutorCompletionService<Receipt> completion = new ExecutorCompletionService<>(executor);
+        List<String> failures = new ArrayList<>();
+        int inFlight = 0;
+        int written = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            // PDFs are already compressed; spend as little CPU as possible deflating them again
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            long afterId = 0;
+            List<Booking> page;
+            do {
+                page = bookingRepository.findReceiptPage(branchId, from, to, afterId, PageRequest.of(0, PAGE_SIZE));
+                for (Booking booking : page) {
+                    if (inFlight == window) {
+                        written += writeNext(completion, zip, failures);
+                        inFlight--;
+                    }
+                    completion.submit(() -> {
+                        try {
+                            return new Receipt(booking.getBookingId(), receiptStore.receiptFor(booking));
+                        } catch (RuntimeException e) {
+                            throw new RuntimeException("Booking " + booking.getBookingId() + ": " + e.getMessage(), e);
+                        }
+                    });
+                    inFlight++;
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+
+            while (inFlight > 0) {
+                written += writeNext(completion, zip, failures);
+                inFlight--;
+            }
+
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("_errors.txt"));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Receipt export interrupted", e);
+        }
+        logger.info("Exported {} receipts for branch {} ({} - {}), {} failed", written, branchId, from, to, failures.size());
+    }
+
+    // Writes whichever receipt finishes next; a failed render is listed in _errors.txt instead
+    private static int writeNext(ExecutorCompletionService<Receipt> completion, ZipOutputStream zip, List<String> failures)
+            throws InterruptedException, IOException {
+        Receipt receipt;
+        try {
+            receipt = completion.take().get();
+        } catch (ExecutionException e) {
+            logger.error("Receipt render failed during export: {}", e.getCause().getMessage());
+            failures.add(String.valueOf(e.getCause().getMessage()));
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry("receipt_" + receipt.bookingId() + ".pdf"));
+        Files.copy(receipt.file(), zip);
+        zip.closeEntry();
+        zip.flush();
+        return 1;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private record Receipt(String bookingId, Path file) {}
+}
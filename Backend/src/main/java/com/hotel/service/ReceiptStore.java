@@ -0,0 +1,164 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+// Rendered receipts on disk, addressed by a SHA-256 of everything the receipt template prints.
+// A booking renders once; any change to those fields (e.g. cancellation) yields a new address,
+// so stored files never need invalidating. The fingerprint doubles as the download ETag.
+// Files that stop being downloaded are pruned by MaintenanceScheduler.
+@Component
+public class ReceiptStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptStore.class);
+
+    // Bump whenever templates/receipt.html or the PDF rendering changes, so old files are not served
+    private static final String TEMPLATE_VERSION = "receipt-v1";
+
+    // A render takes seconds; older temp files belong to a render that never finished
+    private static final Duration TEMP_MAX_AGE = Duration.ofHours(1);
+
+    @Value("${app.receipts.dir:./data/receipts}")
+    private String receiptsDir;
+
+    // Receipts nobody downloaded for this long are deleted; a later download just renders them again
+    @Value("${app.receipts.max-idle-days:30}")
+    private long maxIdleDays;
+
+    @Value("${app.hotel.name}")
+    private String hotelName;
+
+    @Autowired
+    private PdfService pdfService;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(receiptsDir).toAbsolutePath();
+        Files.createDirectories(root);
+    }
+
+    // Room and branch must be initialized (see BookingRepository.findByBookingIdWithRoomAndBranch)
+    public String fingerprint(Booking booking) {
+        String canonical = String.join("\u001f",
+                TEMPLATE_VERSION,
+                hotelName,
+                booking.getBookingId(),
+                String.valueOf(booking.getCustomerId()),
+                booking.getCustomerName(),
+                booking.getEmail(),
+                booking.getPhoneNumber(),
+                booking.getBranch().getName(),
+                booking.getRoom().getRoomNumber(),
+                booking.getRoom().getRoomType().name(),
+                String.valueOf(booking.getCheckIn()),
+                String.valueOf(booking.getCheckOut()),
+                String.valueOf(booking.getCreatedAt()),
+                String.valueOf(booking.getPrice()),
+                String.valueOf(booking.getDiscount()),
+                booking.getStatus());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Path of the stored receipt, rendering it first if this version of the booking has none yet
+    public Path receiptFor(Booking booking) {
+        return receiptFor(booking, fingerprint(booking));
+    }
+
+    public Path receiptFor(Booking booking, String fingerprint) {
+        Path target = root.resolve(fingerprint.substring(0, 2)).resolve(fingerprint + ".pdf");
+        if (Files.exists(target)) {
+            touch(target);
+            return target;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            // Write aside and move into place, so readers never see a partial file; racing renders
+            // of the same fingerprint produce identical bytes, whichever move lands last is fine
+            Path temp = Files.createTempFile(target.getParent(), fingerprint, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    pdfService.writeReceipt(booking, out);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            logger.info("Stored receipt for booking {} as {}", booking.getBookingId(), fingerprint);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store receipt for booking " + booking.getBookingId(), e);
+        }
+    }
+
+    // Deletes receipts idle for max-idle-days (older versions of a booking, archived bookings)
+    // and temp files left behind by a crashed render. Returns the number of files removed.
+    public int prune() {
+        Instant now = Instant.now();
+        Instant idleCutoff = now.minus(Duration.ofDays(maxIdleDays));
+        Instant tempCutoff = now.minus(TEMP_MAX_AGE);
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                Instant cutoff = name.endsWith(".pdf") ? idleCutoff : name.endsWith(".tmp") ? tempCutoff : null;
+                if (cutoff != null && lastModified(file).isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not prune receipts in " + root, e);
+        }
+        logger.info("Pruned {} stored receipt files", removed);
+        return removed;
+    }
+
+    // Refreshes the idle clock of a served receipt, at most once a day so hits stay read-only
+    private static void touch(Path file) {
+        try {
+            Instant now = Instant.now();
+            if (lastModified(file).isBefore(now.minus(Duration.ofDays(1)))) {
+                Files.setLastModifiedTime(file, FileTime.from(now));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not touch receipt {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Instant lastModified(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).toInstant();
+    }
+}
@@ -0,0 +1,46 @@
+package com.hotel.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.function.LongPredicate;
+
+// Best-fit room assignment: put a stay into the free room whose neighbouring bookings
+// surround it most tightly, so the calendar is left with as few unsellable gaps as possible.
+@Component
+public class RoomAssignmentEngine {
+
+    // An unbounded side counts as a year of open nights, so empty rooms are kept for stays that fit nowhere else
+    private static final long OPEN_GAP_NIGHTS = 365;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    // Free nights left on either side of the stay; 0 means it slots exactly between two bookings
+    public long leftoverNights(long roomId, LocalDate checkIn, LocalDate checkOut) {
+        long before = occupancyIndex.gapBefore(roomId, checkIn);
+        long after = occupancyIndex.gapAfter(roomId, checkOut);
+        return (before < 0 ? OPEN_GAP_NIGHTS : before) + (after < 0 ? OPEN_GAP_NIGHTS : after);
+    }
+
+    // Tightest free room among candidates ordered by room number (ties keep that order), or null
+    public Long pickBestFit(long[] roomIds, LocalDate checkIn, LocalDate checkOut, LongPredicate isFree) {
+        Long best = null;
+        long bestLeftover = Long.MAX_VALUE;
+        for (long roomId : roomIds) {
+            if (!isFree.test(roomId)) {
+                continue;
+            }
+            long leftover = leftoverNights(roomId, checkIn, checkOut);
+            if (leftover < bestLeftover) {
+                best = roomId;
+                bestLeftover = leftover;
+                if (leftover == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
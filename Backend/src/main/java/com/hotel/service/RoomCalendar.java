@@ -0,0 +1,98 @@
+package com.hotel.service;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+// Stays of a single room sorted by check-in day (epoch days, half-open [start, end)).
+// ACTIVE stays of one room never overlap, so the stay starting last before a requested
+// check-out is the only one that can collide with it: one O(log n) lookup per check.
+final class RoomCalendar {
+
+    private static final Comparator<Stay> ORDER =
+            Comparator.comparingLong(Stay::start).thenComparingLong(Stay::bookingId);
+
+    private final TreeSet<Stay> stays = new TreeSet<>(ORDER);
+
+    // Legacy double bookings break the non-overlap invariant; while any exist we scan instead
+    private int overlaps;
+
+    // False when the stay is empty or already present (e.g. loaded by a rebuild that raced the booking)
+    synchronized boolean add(long bookingId, long start, long end) {
+        if (end <= start) {
+            return false;
+        }
+        Stay stay = new Stay(start, end, bookingId);
+        if (stays.contains(stay)) {
+            return false;
+        }
+        if (!isFree(start, end)) {
+            overlaps++;
+        }
+        stays.add(stay);
+        return true;
+    }
+
+    // False when the stay was not present
+    synchronized boolean remove(long bookingId, long start, long end) {
+        if (!stays.remove(new Stay(start, end, bookingId))) {
+            return false;
+        }
+        if (overlaps > 0) {
+            overlaps = countOverlaps();
+        }
+        return true;
+    }
+
+    // Drops stays that checked out on or before day; true when nothing is left
+    synchronized boolean trimBefore(long day) {
+        stays.headSet(probe(day)).removeIf(stay -> stay.end() <= day);
+        if (overlaps > 0) {
+            overlaps = countOverlaps();
+        }
+        return stays.isEmpty();
+    }
+
+    synchronized boolean isFree(long start, long end) {
+        if (overlaps > 0) {
+            for (Stay stay : stays.headSet(probe(end))) {
+                if (stay.end() > start) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        Stay before = stays.lower(probe(end));
+        return before == null || before.end() <= start;
+    }
+
+    // Free nights between the previous check-out and day, or -1 when nothing is booked before it
+    synchronized long gapBefore(long day) {
+        Stay before = stays.lower(probe(day));
+        return before == null ? -1 : Math.max(0, day - before.end());
+    }
+
+    // Free nights between day and the next check-in, or -1 when nothing is booked after it
+    synchronized long gapAfter(long day) {
+        Stay after = stays.ceiling(probe(day));
+        return after == null ? -1 : after.start() - day;
+    }
+
+    // Sorts before every stay that starts on the given day
+    private static Stay probe(long day) {
+        return new Stay(day, day, Long.MIN_VALUE);
+    }
+
+    private int countOverlaps() {
+        int count = 0;
+        long reach = Long.MIN_VALUE;
+        for (Stay stay : stays) {
+            if (stay.start() < reach) {
+                count++;
+            }
+            reach = Math.max(reach, stay.end());
+        }
+        return count;
+    }
+
+    record Stay(long start, long end, long bookingId) {}
+}
@@ -0,0 +1,151 @@
+package com.hotel.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+// Short-lived holds on a room between Stripe session creation and the payment webhook.
+// Each room's holds are an immutable list swapped inside ConcurrentHashMap.compute, so the check-and-hold
+// is atomic per room while holds on different rooms never share a lock; readers never lock at all.
+@Component
+public class RoomHoldManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomHoldManager.class);
+
+    // Extra time after the Stripe session expires, for a completed payment's webhook to arrive
+    private static final long WEBHOOK_GRACE_MILLIS = 5 * 60 * 1000L;
+
+    // Stripe rejects expires_at less than 30 minutes after creation; one more minute covers bulkhead
+    // queueing and network latency between computing the timestamp and Stripe receiving it
+    private static final long MIN_SESSION_MINUTES = 31;
+    private static final long MAX_SESSION_MINUTES = 24 * 60;
+
+    @Value("${app.booking.hold-minutes:30}")
+    private long holdMinutes;
+
+    private final Map<Long, List<Hold>> holdsByRoom = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (holdMinutes < 30 || holdMinutes >= MAX_SESSION_MINUTES) {
+            throw new IllegalStateException("app.booking.hold-minutes must be between 30 and "
+                    + (MAX_SESSION_MINUTES - 1) + " (Stripe session lifetime), got " + holdMinutes);
+        }
+    }
+
+    // Lifetime of the Stripe session behind a hold; the hold itself outlives it by the webhook grace
+    public Duration sessionLifetime() {
+        return Duration.ofMinutes(Math.max(holdMinutes, MIN_SESSION_MINUTES));
+    }
+
+    // Places (or refreshes) the holder's hold when no other live hold overlaps and the room is unbooked
+    public boolean tryHold(Long roomId, LocalDate checkIn, LocalDate checkOut, String holder, BooleanSupplier unbooked) {
+        long now = System.currentTimeMillis();
+        Hold wanted = new Hold(checkIn.toEpochDay(), checkOut.toEpochDay(), holder,
+                now + sessionLifetime().toMillis() + WEBHOOK_GRACE_MILLIS);
+        boolean[] acquired = {false};
+
+        holdsByRoom.compute(roomId, (id, current) -> {
+            List<Hold> kept = new ArrayList<>();
+            if (current != null) {
+                for (Hold hold : current) {
+                    if (hold.expiresAt() <= now || hold.sameAs(wanted)) {
+                        continue;
+                    }
+                    if (hold.overlaps(wanted.start(), wanted.end()) && !hold.holder().equals(holder)) {
+                        return current;
+                    }
+                    kept.add(hold);
+                }
+            }
+            if (!unbooked.getAsBoolean()) {
+                return kept.isEmpty() ? null : List.copyOf(kept);
+            }
+            kept.add(wanted);
+            acquired[0] = true;
+            return List.copyOf(kept);
+        });
+
+        logger.debug("Hold on room {} for {} - {} by {}: {}", roomId, checkIn, checkOut, holder, acquired[0] ? "acquired" : "refused");
+        return acquired[0];
+    }
+
+    public void release(Long roomId, LocalDate checkIn, LocalDate checkOut, String holder) {
+        Hold released = new Hold(checkIn.toEpochDay(), checkOut.toEpochDay(), holder, 0);
+        holdsByRoom.computeIfPresent(roomId, (id, current) -> {
+            List<Hold> kept = current.stream().filter(hold -> !hold.sameAs(released)).toList();
+            return kept.isEmpty() ? null : kept;
+        });
+    }
+
+    // Lock-free read used by availability queries
+    public boolean isHeld(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        List<Hold> holds = holdsByRoom.get(roomId);
+        if (holds == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        for (Hold hold : holds) {
+            if (hold.expiresAt() > now && hold.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Nights from, from + 1, ..., from + days - 1 on which the room has a live hold, or null when it has none
+    public boolean[] heldNights(Long roomId, LocalDate from, int days) {
+        List<Hold> holds = holdsByRoom.get(roomId);
+        if (holds == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long first = from.toEpochDay();
+        boolean[] held = null;
+        for (Hold hold : holds) {
+            if (hold.expiresAt() <= now || !hold.overlaps(first, first + days)) {
+                continue;
+            }
+            if (held == null) {
+                held = new boolean[days];
+            }
+            for (long day = Math.max(hold.start(), first); day < Math.min(hold.end(), first + days); day++) {
+                held[(int) (day - first)] = true;
+            }
+        }
+        return held;
+    }
+
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Long roomId : holdsByRoom.keySet()) {
+            holdsByRoom.computeIfPresent(roomId, (id, current) -> {
+                List<Hold> live = current.stream().filter(hold -> hold.expiresAt() > now).toList();
+                return live.isEmpty() ? null : live;
+            });
+        }
+    }
+
+    record Hold(long start, long end, String holder, long expiresAt) {
+
+        boolean overlaps(long otherStart, long otherEnd) {
+            return start < otherEnd && end > otherStart;
+        }
+
+        boolean sameAs(Hold other) {
+            return start == other.start && end == other.end && holder.equals(other.holder);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.hotel.service;
 
+import com.hotel.dto.RoomDTO;
 import com.hotel.model.Room;
 import com.hotel.model.RoomType;
 import com.hotel.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
@@ -15,25 +19,27 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
 
-    public List<Room> getAvailableRooms(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
-        return roomRepository.findAllAvailableRooms(branchId, roomType, checkIn, checkOut);
-    }
+    @Autowired
+    private KeysetJsonExporter keysetJsonExporter;
 
     public Room getRoomById(Long id) {
         return roomRepository.findById(id).orElse(null);
     }
 
-    public boolean isRoomAvailable(Long branchId, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
-        return !getAvailableRooms(branchId, roomType, checkIn, checkOut).isEmpty();
+    // Every room (optionally of one branch/type) with branch details, in the same single joined query
+    public List<RoomDTO> getAllRooms(Long branchId, RoomType roomType) {
+        return roomRepository.findRoomPage(0L, branchId, roomType, Pageable.unpaged());
     }
 
-    public List<Room> getAllRooms() {
-        return roomRepository.findAll();
+    // One keyset page of rooms with branch details, fetched in a single joined query
+    public List<RoomDTO> getRoomPage(Long afterId, int limit, Long branchId, RoomType roomType) {
+        return roomRepository.findRoomPage(afterId, branchId, roomType, PageRequest.ofSize(limit));
     }
 
-    public Room findAvailableRoom(String branchName, String type, LocalDate checkIn, LocalDate checkOut) {
-        RoomType roomType = RoomType.valueOf(type.toUpperCase());
-        List<Room> available = roomRepository.findAvailableRoomByBranchAndType(branchName, roomType, checkIn, checkOut);
-        return available.isEmpty() ? null : available.get(0);
+    // Full export streamed as a JSON array (/api/admin/export/rooms)
+    public void exportRooms(OutputStream out) throws IOException {
+        keysetJsonExporter.export(out,
+                afterId -> roomRepository.findRoomPage(afterId, null, null, PageRequest.ofSize(KeysetJsonExporter.EXPORT_PAGE_SIZE)),
+                RoomDTO::getId);
     }
-}
\ No newline at end of file
+}
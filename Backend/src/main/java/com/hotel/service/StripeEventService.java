@@ -0,0 +1,282 @@
+package com.hotel.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hotel.model.Booking;
+import com.hotel.model.StripeEventLog;
+import com.hotel.repository.StripeEventLogRepository;
+import com.stripe.model.Event;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Durable ingestion of Stripe webhooks. The endpoint appends the verified raw event to stripe_event_log
+// and ACKs; StripeEventProcessor applies the log later, in order per checkout session.
+@Service
+public class StripeEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeEventService.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String EVENT_KEY = "evt:";
+    private static final String SESSION_KEY = "cs:";
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Value("${app.stripe.events.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.stripe.events.initial-backoff-seconds:10}")
+    private long initialBackoffSeconds;
+
+    @Autowired private StripeEventLogRepository stripeEventLogRepository;
+    @Autowired private BookingService bookingService;
+    @Autowired private IdempotencyStore idempotencyStore;
+    @Autowired private CheckoutSessionCache checkoutSessionCache;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private Timer processingTimer;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gauge("stripe.events.pending", pendingEvents);
+        meterRegistry.gauge("stripe.events.lag.seconds", lagSeconds);
+        processingTimer = Timer.builder("stripe.events.processing").register(meterRegistry);
+    }
+
+    // Top-level id/type plus data.object.id, read by streaming without building the event
+    public record EventHeader(String id, String type, String dataObjectId) {
+
+        // Events of one checkout session share a key and are applied in arrival order
+        String sessionKey() {
+            return type.startsWith("checkout.session.") && dataObjectId != null ? dataObjectId : id;
+        }
+    }
+
+    public EventHeader readHeader(String payload) throws IOException {
+        String id = null;
+        String type = null;
+        String dataObjectId = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Event payload is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                    id = parser.getText();
+                } else if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    dataObjectId = readDataObjectId(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (id == null || type == null) {
+            throw new IOException("Event id or type missing");
+        }
+        return new EventHeader(id, type, dataObjectId);
+    }
+
+    // Parser is on data's START_OBJECT; consumes through its END_OBJECT
+    private static String readDataObjectId(JsonParser parser) throws IOException {
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("object".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = parser.getCurrentName();
+                    JsonToken innerValue = parser.nextToken();
+                    if ("id".equals(inner) && innerValue == JsonToken.VALUE_STRING) {
+                        result = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    public boolean isHandled(String eventId) {
+        return idempotencyStore.contains(EVENT_KEY + eventId);
+    }
+
+    // Returns false when the event was already in the log (a redelivery)
+    public boolean append(EventHeader header, String payload) {
+        return stripeEventLogRepository.append(header.id(), header.type(), header.sessionKey(), payload, LocalDateTime.now()) > 0;
+    }
+
+    // Locks up to limit head-of-session events, leases them and returns their ids
+    @Transactional
+    public List<Long> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = stripeEventLogRepository.lockDue(now, limit).stream().map(StripeEventLog::getId).toList();
+        if (!ids.isEmpty()) {
+            stripeEventLogRepository.lease(ids, now.plus(LEASE));
+        }
+        return ids;
+    }
+
+    public void process(Long logId) {
+        StripeEventLog entry = stripeEventLogRepository.findById(logId).orElse(null);
+        if (entry == null || !"PENDING".equals(entry.getStatus())) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Event event = ApiResource.GSON.fromJson(entry.getPayload(), Event.class);
+            logger.info("✅ Applying Stripe event {} ({})", event.getId(), event.getType());
+            if ("checkout.session.completed".equals(event.getType())) {
+                handleCheckoutCompleted(event, entry.getReceivedAt());
+            }
+            markDone(entry);
+        } catch (Exception e) {
+            markFailed(entry, e);
+        } finally {
+            sample.stop(processingTimer);
+        }
+    }
+
+    private void handleCheckoutCompleted(Event event, LocalDateTime receivedAt) {
+        Session session = (Session) event.getData().getObject();
+        if (session == null) {
+            throw new IllegalArgumentException("Invalid session object");
+        }
+
+        // A different event for a session we already booked (e.g. a resent completion)
+        if (idempotencyStore.contains(SESSION_KEY + session.getId())) {
+            logger.info("🔁 Booking already exists for Stripe session: {}", session.getId());
+            return;
+        }
+
+        Map<String, String> metadata = session.getMetadata();
+        if (metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("Missing metadata for session " + session.getId());
+        }
+
+        String customerName = metadata.get("customerName");
+        String phoneNumber = metadata.get("phoneNumber");
+        String email = metadata.get("email");
+        String roomIdStr = metadata.get("roomId");
+        String checkInStr = metadata.get("checkInDate");
+        String checkOutStr = metadata.get("checkOutDate");
+
+        if (customerName == null || phoneNumber == null || email == null ||
+                roomIdStr == null || checkInStr == null || checkOutStr == null) {
+            throw new IllegalArgumentException("Invalid metadata fields for session " + session.getId());
+        }
+
+        // Unparseable metadata will never succeed on retry, so it must surface as IllegalArgumentException (DEAD)
+        Long roomId;
+        LocalDate checkIn;
+        LocalDate checkOut;
+        Double quotedPrice;
+        try {
+            roomId = Long.parseLong(roomIdStr);
+            checkIn = LocalDate.parse(checkInStr);
+            checkOut = LocalDate.parse(checkOutStr);
+            quotedPrice = metadata.get("quotedPrice") != null ? Double.valueOf(metadata.get("quotedPrice")) : null;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed metadata for session " + session.getId() + ": " + e.getMessage(), e);
+        }
+
+        logger.info("💾 Saving booking for Stripe session: {}", session.getId());
+        Booking booking = bookingService.saveFinalBookingAfterStripe(
+                customerName,
+                phoneNumber,
+                email,
+                roomId,
+                checkIn,
+                checkOut,
+                receivedAt.toLocalTime(),
+                session.getId(),
+                quotedPrice
+        );
+        idempotencyStore.put(SESSION_KEY + session.getId());
+        checkoutSessionCache.evictSession(session.getId());
+        logger.info("✅ Booking saved successfully: {}", booking.getBookingId());
+    }
+
+    // Refreshes the lag gauges; called by StripeEventProcessor every app.stripe.events.lag-refresh-millis
+    public void refreshLag() {
+        Object[] stats = stripeEventLogRepository.pendingStats().get(0);
+        pendingEvents.set(((Number) stats[0]).longValue());
+        LocalDateTime oldest = stats[1] instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) stats[1];
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds()));
+    }
+
+    public List<StripeEventLog> getDeadLetters() {
+        return stripeEventLogRepository.findByStatusOrderByIdAsc("DEAD");
+    }
+
+    // Admin replay: puts a dead event back in its session's queue with a fresh attempt budget
+    public StripeEventLog replay(Long logId) {
+        StripeEventLog entry = stripeEventLogRepository.findById(logId)
+                .orElseThrow(() -> new RuntimeException("Stripe event not found: " + logId));
+        entry.setStatus("PENDING");
+        entry.setAttempts(0);
+        entry.setNextAttemptAt(LocalDateTime.now());
+        logger.info("Replaying Stripe event {} ({})", entry.getEventId(), entry.getEventType());
+        return stripeEventLogRepository.save(entry);
+    }
+
+    private void markDone(StripeEventLog entry) {
+        entry.setStatus("DONE");
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastError(null);
+        entry.setProcessedAt(LocalDateTime.now());
+        stripeEventLogRepository.save(entry);
+        idempotencyStore.put(EVENT_KEY + entry.getEventId());
+    }
+
+    // Malformed events go straight to DEAD; anything else backs off exponentially
+    private void markFailed(StripeEventLog entry, Exception e) {
+        int attempts = entry.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        entry.setAttempts(attempts);
+        String message = String.valueOf(e.getMessage());
+        entry.setLastError(message.length() <= 1000 ? message : message.substring(0, 1000));
+
+        if (e instanceof IllegalArgumentException || attempts >= maxAttempts) {
+            // Unblocks the rest of the session's events
+            entry.setStatus("DEAD");
+            logger.error("❌ Stripe event {} dead-lettered after {} attempts", entry.getEventId(), attempts, e);
+        } else {
+            Duration backoff = Duration.ofSeconds(initialBackoffSeconds).multipliedBy(1L << (attempts - 1));
+            entry.setNextAttemptAt(now.plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            logger.warn("⚠️ Stripe event {} failed (attempt {}), retrying at {}: {}",
+                    entry.getEventId(), attempts, entry.getNextAttemptAt(), e.getMessage());
+        }
+        stripeEventLogRepository.save(entry);
+    }
+}
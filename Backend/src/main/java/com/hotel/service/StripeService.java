@@ -1,79 +1,233 @@
-package com.hotel.service;
-
-import com.stripe.Stripe;
-import com.stripe.model.checkout.Session;
-import com.stripe.param.checkout.SessionCreateParams;
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-
-import java.util.List;
-
-@Service
-public class StripeService {
-
-    @Value("${stripe.secret.key}")
-    private String stripeSecretKey;
-
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
-    }
-
-    public Session createStripeSession(String productName,
-                                       double totalAmount,
-                                       String customerName,
-                                       String email,
-                                       String phoneNumber,
-                                       Long roomId,
-                                       String checkIn,
-                                       String checkOut,
-                                       String bookingTime,
-                                       String successUrl,
-                                       String cancelUrl,
-                                       String productDescription
-    ) {
-        long amountInPaise = Math.round(totalAmount * 100);
-
-        SessionCreateParams params = SessionCreateParams.builder()
-                .setMode(SessionCreateParams.Mode.PAYMENT)
-                .setSuccessUrl(successUrl)
-                .setCancelUrl(cancelUrl)
-                .setCustomerEmail(email)
-                .putMetadata("customerName", customerName)
-                .putMetadata("phoneNumber", phoneNumber)
-                .putMetadata("email", email)
-                .putMetadata("roomId", String.valueOf(roomId))
-                .putMetadata("checkInDate", checkIn)         // ✅ fixed key
-                .putMetadata("checkOutDate", checkOut)       // ✅ fixed key
-                .putMetadata("bookingTime", bookingTime)
-                .putMetadata("productName", productName)
-                .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
-                .addAllLineItem(List.of(
-                        SessionCreateParams.LineItem.builder()
-                                .setQuantity(1L)
-                                .setPriceData(
-                                        SessionCreateParams.LineItem.PriceData.builder()
-                                                .setCurrency("inr")
-                                                .setUnitAmount(amountInPaise)
-                                                .setProductData(
-                                                        SessionCreateParams.LineItem.PriceData.ProductData.builder()
-                                                                .setName(productName)
-                                                                .setDescription(productDescription)
-                                                                .build()
-                                                )
-                                                .build()
-                                )
-                                .build()
-                ))
-                .build();
-
-        try {
-            Session session = Session.create(params);
-            System.out.println("✅ Stripe session created: " + session.getId());
-            return session;
-        } catch (Exception e) {
-            throw new RuntimeException("❌ Stripe session creation failed: " + e.getMessage(), e);
-        }
-    }
-}
+package com.hotel.service;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.checkout.SessionCreateParams;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Stripe API calls run in their own bulkhead (a small thread pool with a bounded queue) behind a time
+// limiter and a circuit breaker, so a slow Stripe ties up at most maxConcurrent + queueCapacity request
+// threads and everything beyond that fails fast instead of starving availability and status endpoints.
+@Service
+public class StripeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeService.class);
+
+    private static final String STRIPE = "stripe";
+
+    @Value("${stripe.secret.key}")
+    private String stripeSecretKey;
+
+    // Empty means api.stripe.com; point it at a stripe-mock style stub for offline load tests
+    @Value("${stripe.api.base:}")
+    private String stripeApiBase;
+
+    @Value("${app.stripe.bulkhead.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${app.stripe.bulkhead.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.stripe.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${app.stripe.circuit-breaker.failure-rate:50}")
+    private float failureRateThreshold;
+
+    @Value("${app.stripe.circuit-breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Sessions expire together with the room hold taken for them
+    @Autowired
+    private RoomHoldManager roomHoldManager;
+
+    private ThreadPoolBulkhead bulkhead;
+    private TimeLimiter timeLimiter;
+    private CircuitBreaker circuitBreaker;
+    private ScheduledExecutorService timeoutScheduler;
+    private Timer sessionCreateTimer;
+
+    @PostConstruct
+    public void init() {
+        Stripe.apiKey = stripeSecretKey;
+        if (!stripeApiBase.isBlank()) {
+            Stripe.overrideApiBase(stripeApiBase);
+            logger.warn("Stripe API base overridden: {}", stripeApiBase);
+        }
+        // The SDK's own socket timeouts stay just above the time limiter so abandoned calls do not linger
+        Stripe.setConnectTimeout(5_000);
+        Stripe.setReadTimeout((int) Duration.ofSeconds(timeoutSeconds + 5).toMillis());
+
+        ThreadPoolBulkheadRegistry bulkheads = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(maxConcurrent)
+                .maxThreadPoolSize(maxConcurrent)
+                .queueCapacity(queueCapacity)
+                .build());
+        TimeLimiterRegistry timeLimiters = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofSeconds(timeoutSeconds))
+                .cancelRunningFuture(true)
+                .build());
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofSeconds(timeoutSeconds / 2 + 1))
+                .slowCallRateThreshold(80)
+                .waitDurationInOpenState(Duration.ofSeconds(openSeconds))
+                .recordExceptions(StripeException.class, TimeoutException.class, BulkheadFullException.class)
+                .build());
+
+        bulkhead = bulkheads.bulkhead(STRIPE);
+        timeLimiter = timeLimiters.timeLimiter(STRIPE);
+        circuitBreaker = circuitBreakers.circuitBreaker(STRIPE);
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stripe-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // resilience4j_bulkhead_queue_depth, *_thread_pool_size, resilience4j_circuitbreaker_state, ...
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        sessionCreateTimer = Timer.builder("stripe.session.create")
+                .description("Checkout session creation latency, including bulkhead queueing")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        bulkhead.close();
+        timeoutScheduler.shutdownNow();
+    }
+
+    public Session createStripeSession(String productName,
+                                       double totalAmount,
+                                       String customerName,
+                                       String email,
+                                       String phoneNumber,
+                                       Long roomId,
+                                       String checkIn,
+                                       String checkOut,
+                                       String bookingTime,
+                                       String successUrl,
+                                       String cancelUrl,
+                                       String productDescription,
+                                       double quotedPrice,
+                                       String idempotencyKey
+    ) {
+        long amountInPaise = Math.round(totalAmount * 100);
+
+        SessionCreateParams.Builder params = SessionCreateParams.builder()
+                .setMode(SessionCreateParams.Mode.PAYMENT)
+                .setSuccessUrl(successUrl)
+                .setCancelUrl(cancelUrl)
+                .setCustomerEmail(email)
+                .putMetadata("customerName", customerName)
+                .putMetadata("phoneNumber", phoneNumber)
+                .putMetadata("email", email)
+                .putMetadata("roomId", String.valueOf(roomId))
+                .putMetadata("checkInDate", checkIn)         // ✅ fixed key
+                .putMetadata("checkOutDate", checkOut)       // ✅ fixed key
+                .putMetadata("bookingTime", bookingTime)
+                .putMetadata("productName", productName)
+                .putMetadata("quotedPrice", String.valueOf(quotedPrice))   // room price saved on the booking
+                .addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
+                .addAllLineItem(List.of(
+                        SessionCreateParams.LineItem.builder()
+                                .setQuantity(1L)
+                                .setPriceData(
+                                        SessionCreateParams.LineItem.PriceData.builder()
+                                                .setCurrency("inr")
+                                                .setUnitAmount(amountInPaise)
+                                                .setProductData(
+                                                        SessionCreateParams.LineItem.PriceData.ProductData.builder()
+                                                                .setName(productName)
+                                                                .setDescription(productDescription)
+                                                                .build()
+                                                )
+                                                .build()
+                                )
+                                .build()
+                ));
+
+        // A client-supplied Idempotency-Key is forwarded so Stripe also collapses retries on its side
+        RequestOptions requestOptions = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? RequestOptions.builder().setIdempotencyKey("checkout-" + idempotencyKey).build()
+                : RequestOptions.getDefault();
+
+        Session session = sessionCreateTimer.record(() -> call(() -> {
+            try {
+                // Taken on the bulkhead thread, right before the request, so queueing does not eat into Stripe's minimum
+                params.setExpiresAt(Instant.now().plus(roomHoldManager.sessionLifetime()).getEpochSecond());
+                return Session.create(params.build(), requestOptions);
+            } catch (StripeException e) {
+                throw new CompletionException(e);
+            }
+        }));
+        logger.info("✅ Stripe session created: {}", session.getId());
+        return session;
+    }
+
+    // Circuit breaker -> time limiter -> bulkhead thread; blocks the caller for at most timeoutSeconds
+    private <T> T call(Supplier<T> stripeCall) {
+        Supplier<CompletionStage<T>> isolated = () -> bulkhead.executeSupplier(stripeCall);
+        Supplier<CompletionStage<T>> timed = TimeLimiter.decorateCompletionStage(timeLimiter, timeoutScheduler, isolated);
+        try {
+            return CircuitBreaker.decorateCompletionStage(circuitBreaker, timed).get().toCompletableFuture().join();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            logger.warn("⚠️ Stripe call rejected: {}", e.getMessage());
+            throw new RuntimeException("❌ Payment service is busy, please try again shortly", e);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+                logger.warn("⚠️ Stripe call rejected: {}", cause.getMessage());
+                throw new RuntimeException("❌ Payment service is busy, please try again shortly", cause);
+            }
+            if (cause instanceof TimeoutException) {
+                throw new RuntimeException("❌ Stripe session creation timed out", cause);
+            }
+            throw new RuntimeException("❌ Stripe session creation failed: " + cause.getMessage(), cause);
+        }
+    }
+}
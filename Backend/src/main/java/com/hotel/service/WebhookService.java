@@ -1,47 +1,206 @@
 package com.hotel.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.dto.BookingEventDTO;
 import com.hotel.model.Booking;
-import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Partner webhook over one shared HttpClient (keep-alive connection pool, timeouts). In-flight POSTs are
+// bounded by a semaphore; when it is exhausted the calling outbox worker waits, which is our backpressure.
+// With app.webhook.batch.enabled, events arriving within linger-millis are sent as one batched POST.
 @Service
 public class WebhookService {
     private static final Logger logger = LoggerFactory.getLogger(WebhookService.class);
 
+    private static final byte[] BATCH_PREFIX =
+            ("{\"schemaVersion\":" + BookingEventDTO.SCHEMA_VERSION + ",\"type\":\"booking.batch\",\"events\":[")
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BATCH_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Value("${app.webhook.url}")
     private String webhookUrl;
 
-    @Retry(name = "webhookRetry", fallbackMethod = "webhookFallback")
-    public void notifyWebhook(Booking booking) {
+    @Value("${app.webhook.connect-timeout-seconds:5}")
+    private long connectTimeoutSeconds;
+
+    @Value("${app.webhook.request-timeout-seconds:10}")
+    private long requestTimeoutSeconds;
+
+    @Value("${app.webhook.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${app.webhook.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${app.webhook.batch.max-size:50}")
+    private int batchMaxSize;
+
+    @Value("${app.webhook.batch.linger-millis:200}")
+    private long batchLingerMillis;
+
+    private HttpClient httpClient;
+    private Semaphore inFlight;
+    private ScheduledExecutorService batchFlusher;
+
+    // Events waiting for the next batched POST; guarded by this
+    private List<Pending> pending = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .build();
+        inFlight = new Semaphore(maxInFlight);
+        if (batchEnabled) {
+            batchFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "webhook-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Completes when the partner acknowledged the event (2xx); retries and dead-lettering are handled by OutboxService
+    public CompletableFuture<Void> notifyWebhook(Booking booking) {
         if (webhookUrl == null || webhookUrl.isEmpty()) {
             logger.info("Webhook URL not configured, skipping notification");
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(BookingEventDTO.confirmed(booking));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Webhook payload could not be serialized", e));
+        }
+
+        logger.info("Queueing webhook notification for booking ID: {}", booking.getBookingId());
+        if (batchEnabled) {
+            return enqueue(payload);
+        }
+        return post(payload, 1);
+    }
+
+    private CompletableFuture<Void> enqueue(byte[] payload) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        List<Pending> full = null;
+        synchronized (this) {
+            pending.add(new Pending(payload, result));
+            if (pending.size() == 1) {
+                batchFlusher.schedule(this::flush, batchLingerMillis, TimeUnit.MILLISECONDS);
+            }
+            if (pending.size() >= batchMaxSize) {
+                full = pending;
+                pending = new ArrayList<>();
+            }
+        }
+        if (full != null) {
+            sendBatch(full);
+        }
+        return result;
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return; // already sent because it filled up
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        sendBatch(batch);
+    }
+
+    // Each event was serialized once on the way in; the batch body is just those bytes joined
+    private void sendBatch(List<Pending> batch) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(BATCH_PREFIX);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.writeBytes(batch.get(i).payload());
         }
+        body.writeBytes(BATCH_SUFFIX);
 
-        logger.info("Sending webhook notification for booking ID: {}", booking.getBookingId());
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        post(body.toByteArray(), batch.size()).whenComplete((ignored, error) -> {
+            for (Pending event : batch) {
+                if (error == null) {
+                    event.result().complete(null);
+                } else {
+                    event.result().completeExceptionally(error);
+                }
+            }
+        });
+    }
 
-        HttpEntity<Booking> request = new HttpEntity<>(booking, headers);
+    private CompletableFuture<Void> post(byte[] body, int events) {
         try {
-            restTemplate.postForObject(webhookUrl, request, String.class);
-            logger.info("Webhook notification sent successfully");
-        } catch (Exception e) {
-            logger.error("Error sending webhook notification", e);
-            throw new RuntimeException("Webhook notification failed", e);
+            if (!inFlight.tryAcquire(requestTimeoutSeconds, TimeUnit.SECONDS)) {
+                return CompletableFuture.failedFuture(new RuntimeException("Too many webhook requests in flight"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
         }
+
+        CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                    .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            // Bad URL or a client that refused the request: nothing is in flight, so give the permit back
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return sent
+                .whenComplete((response, error) -> inFlight.release())
+                .thenAccept(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new RuntimeException("Webhook returned HTTP " + response.statusCode());
+                    }
+                    logger.info("Webhook notification sent successfully ({} event(s))", events);
+                });
     }
 
-    public void webhookFallback(Booking booking, Throwable t) {
-        logger.error("Failed to send webhook for booking ID: {} after retries", booking.getBookingId(), t);
-        // Log to a queue for manual retry or monitoring
+    @PreDestroy
+    public void stop() {
+        if (batchFlusher != null) {
+            batchFlusher.shutdown();
+            flush();
+        }
     }
-}
\ No newline at end of file
+
+    private record Pending(byte[] payload, CompletableFuture<Void> result) {}
+}
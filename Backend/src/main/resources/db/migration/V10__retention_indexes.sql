@@ -0,0 +1,9 @@
+--  Let the retention job find finished outbox rows and applied Stripe events without scanning the tables
+
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_done
+    ON booking_outbox (updated_at)
+    WHERE status = 'DONE';
+
+CREATE INDEX IF NOT EXISTS idx_stripe_event_log_done
+    ON stripe_event_log (processed_at)
+    WHERE status = 'DONE';
@@ -0,0 +1,20 @@
+--  Booking stays as half-open date ranges [check_in, check_out), indexed with GiST
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Derived by Postgres, never written by the application
+ALTER TABLE booking
+    ADD COLUMN IF NOT EXISTS stay DATERANGE
+    GENERATED ALWAYS AS (daterange(check_in, check_out, '[)')) STORED;
+
+-- No two ACTIVE bookings of the same room may overlap; double-booking now fails at insert time.
+-- The constraint's GiST index on (room_id, stay) also serves the per-room overlap lookups.
+ALTER TABLE booking
+    ADD CONSTRAINT booking_room_stay_no_overlap
+    EXCLUDE USING gist (room_id WITH =, stay WITH &&)
+    WHERE (status = 'ACTIVE');
+
+-- Branch-wide overlap counts
+CREATE INDEX IF NOT EXISTS idx_booking_branch_stay_active
+    ON booking USING gist (branch_id, stay)
+    WHERE status = 'ACTIVE';
@@ -0,0 +1,18 @@
+--  Outbox for post-booking side effects (receipt email, partner webhook).
+--  Rows are written in the same transaction as the booking and drained by OutboxWorker.
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    booking_id VARCHAR(36) NOT NULL, -- business booking id, no FK so bookings can be archived independently
+    task VARCHAR(20) NOT NULL, -- RECEIPT_EMAIL, WEBHOOK
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, DONE, DEAD
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_due
+    ON booking_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
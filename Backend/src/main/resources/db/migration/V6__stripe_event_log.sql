@@ -0,0 +1,24 @@
+--  Append-only log of verified Stripe webhook events. The webhook endpoint only inserts and ACKs;
+--  StripeEventProcessor applies the events, in id order within each session_key.
+
+CREATE TABLE IF NOT EXISTS stripe_event_log (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(255) NOT NULL UNIQUE, -- Stripe evt_... id; redeliveries collapse onto one row
+    event_type VARCHAR(100) NOT NULL,
+    session_key VARCHAR(255) NOT NULL, -- checkout session id, or the event id for non-session events
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, DONE, DEAD
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stripe_event_log_pending
+    ON stripe_event_log (session_key, id)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_stripe_event_log_due
+    ON stripe_event_log (next_attempt_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,10 @@
+--  prices.room_type holds RoomType enum names. Databases that ran both seed scripts have
+--  'LUXURY' and 'Luxury' rows; keep the upper-case one, upper-case the rest, and enforce it.
+
+DELETE FROM prices p
+WHERE p.room_type <> UPPER(p.room_type)
+  AND EXISTS (SELECT 1 FROM prices u WHERE u.room_type = UPPER(p.room_type));
+
+UPDATE prices SET room_type = UPPER(room_type) WHERE room_type <> UPPER(room_type);
+
+ALTER TABLE prices ADD CONSTRAINT prices_room_type_upper CHECK (room_type = UPPER(room_type));
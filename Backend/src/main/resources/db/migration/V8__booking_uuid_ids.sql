@@ -0,0 +1,33 @@
+--  booking_id moves from VARCHAR(36) to native uuid: 16 bytes per key instead of 37, in the table and its
+--  unique index. Existing random (v4) ids convert as-is; new ids are time-ordered UUIDv7 (BookingIdGenerator).
+
+--  The unique index on booking_id used to exist only through Hibernate's ddl-auto (@Column(unique = true)).
+--  This migration owns it from now on: drop whatever unique constraint Hibernate made, convert, re-index.
+DO $$
+DECLARE
+    existing record;
+BEGIN
+    FOR existing IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'booking'::regclass
+          AND con.contype = 'u'
+          AND cardinality(con.conkey) = 1
+          AND att.attname = 'booking_id'
+    LOOP
+        EXECUTE format('ALTER TABLE booking DROP CONSTRAINT %I', existing.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE booking ALTER COLUMN booking_id TYPE uuid USING booking_id::uuid;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_booking_booking_id ON booking (booking_id);
+
+ALTER TABLE booking_outbox ALTER COLUMN booking_id TYPE uuid USING booking_id::uuid;
+
+--  customer_id was abs(String.hashCode()) of "name:phone" (32 bits, collides); recompute it as the first
+--  8 bytes of SHA-256 with the sign bit cleared, matching BookingIdGenerator.customerKey.
+UPDATE booking
+SET customer_id = ('x' || substr(encode(sha256(convert_to(customer_name || ':' || phone_number, 'UTF8')), 'hex'), 1, 16))::bit(64)::bigint
+                  & 9223372036854775807;
@@ -0,0 +1,27 @@
+--  Retention: bookings past the retention window move here in chunks (BookingRetentionService).
+--  Same columns as booking minus the generated stay range; no FKs, so branches and rooms can change later.
+
+CREATE TABLE IF NOT EXISTS booking_archive (
+    id BIGINT PRIMARY KEY,
+    booking_id uuid NOT NULL,
+    customer_id BIGINT,
+    customer_name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(20) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    branch_id BIGINT NOT NULL,
+    room_id BIGINT NOT NULL,
+    check_in DATE NOT NULL,
+    check_out DATE NOT NULL,
+    price DOUBLE PRECISION NOT NULL,
+    discount DOUBLE PRECISION NOT NULL,
+    created_at DATE NOT NULL,
+    booking_time TIME NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    stripe_session_id VARCHAR(255),
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_archive_booking_id ON booking_archive (booking_id);
+
+-- Lets each chunk find its oldest candidates without scanning the table
+CREATE INDEX IF NOT EXISTS idx_booking_created_at ON booking (created_at, id);
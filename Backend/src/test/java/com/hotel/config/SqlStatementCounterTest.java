@@ -0,0 +1,26 @@
+package com.hotel.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlStatementCounterTest {
+
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void nestedCountsBothSeeInnerStatements() {
+        assertEquals(-1, SqlStatementCounter.stop());
+
+        SqlStatementCounter.start();
+        inspector.inspect("select 1");
+        SqlStatementCounter.start();
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+        assertEquals(2, SqlStatementCounter.stop());
+        inspector.inspect("select 4");
+
+        assertEquals(4, SqlStatementCounter.stop());
+        assertEquals(-1, SqlStatementCounter.stop());
+    }
+}
@@ -0,0 +1,65 @@
+package com.hotel.controller;
+
+import com.hotel.model.Booking;
+import com.hotel.service.BookingService;
+import com.hotel.service.ReceiptStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class BookingControllerTest {
+
+    private static final String BOOKING_ID = "0192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0e";
+    private static final String FINGERPRINT = "ab12cd";
+
+    @Mock private BookingService bookingService;
+    @Mock private ReceiptStore receiptStore;
+
+    @InjectMocks private BookingController bookingController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(bookingController).build();
+    }
+
+    @Test
+    void receiptIsNotModifiedForStrongWeakAndListedTags() throws Exception {
+        Booking booking = new Booking();
+        when(bookingService.getBookingWithRoomAndBranch(BOOKING_ID)).thenReturn(booking);
+        when(receiptStore.fingerprint(booking)).thenReturn(FINGERPRINT);
+
+        for (String ifNoneMatch : new String[]{"\"ab12cd\"", "W/\"ab12cd\"", "\"old\", W/\"ab12cd\""}) {
+            mockMvc.perform(get("/api/booking/{id}/receipt", BOOKING_ID).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"ab12cd\""))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, private"));
+        }
+        verify(receiptStore, never()).receiptFor(any(), anyString());
+    }
+
+    @Test
+    void unknownOrMalformedReceiptIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/booking/{id}/receipt", "1-2-3-4-5"))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(receiptStore);
+    }
+}
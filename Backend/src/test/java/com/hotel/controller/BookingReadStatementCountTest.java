@@ -0,0 +1,113 @@
+package com.hotel.controller;
+
+import com.hotel.config.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Exact SQL statement counts of the public booking reads, so an added lazy load or N+1 fails the build
+// instead of showing up later in http.server.sql.statements
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "stripe.secret.key=sk_test_statement_count",
+        "stripe.publishable.key=pk_test_statement_count",
+        "stripe.webhook.secret=whsec_statement_count",
+        "app.hotel.name=Test Hotel",
+        "app.webhook.url=http://localhost/partner",
+        "app.client.url=http://localhost:3000",
+        "app.jwt.secret=statement-count-test-secret-of-at-least-256-bits",
+        "cors.allowed.origin=http://localhost:3000"
+})
+@AutoConfigureMockMvc
+class BookingReadStatementCountTest {
+
+    private static final String BOOKING_ID = "0192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0e";
+    private static final String SESSION_ID = "cs_test_statement_count";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("app.receipts.dir", Files.createTempDirectory("receipts")::toString);
+    }
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedBooking() {
+        jdbcTemplate.update("""
+                INSERT INTO booking (booking_id, customer_id, customer_name, phone_number, email, branch_id, room_id,
+                                     check_in, check_out, price, discount, created_at, booking_time, status, stripe_session_id)
+                SELECT ?::uuid, 42, 'Guest', '0000000000', 'guest@example.com', r.branch_id, r.id,
+                       DATE '2030-01-10', DATE '2030-01-12', 5000, 0, CURRENT_DATE, TIME '12:00', 'ACTIVE', ?
+                FROM room r
+                WHERE r.id = 1 AND NOT EXISTS (SELECT 1 FROM booking WHERE stripe_session_id = ?)
+            """, BOOKING_ID, SESSION_ID, SESSION_ID);
+    }
+
+    @Test
+    void receiptLoadsBookingRoomAndBranchInOneStatement() throws Exception {
+        MvcResult result = assertStatements(1, get("/api/booking/{id}/receipt", BOOKING_ID));
+        assertEquals(200, result.getResponse().getStatus());
+
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult revalidated = assertStatements(1, get("/api/booking/{id}/receipt", BOOKING_ID).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(304, revalidated.getResponse().getStatus());
+    }
+
+    @Test
+    void bookingStatusIsOneSummaryProjection() throws Exception {
+        MvcResult result = assertStatements(1, get("/api/booking-status").param("bookingId", BOOKING_ID));
+        assertEquals(200, result.getResponse().getStatus());
+    }
+
+    @Test
+    void confirmationReadsOnlyTheBookingRow() throws Exception {
+        MvcResult result = assertStatements(1, get("/api/booking/confirm").param("session_id", SESSION_ID));
+        assertEquals(200, result.getResponse().getStatus());
+    }
+
+    @Test
+    void malformedBookingIdRunsNoStatement() throws Exception {
+        assertEquals(404, assertStatements(0, get("/api/booking/{id}/receipt", "1-2-3-4-5")).getResponse().getStatus());
+        assertEquals(400, assertStatements(0, get("/api/booking-status").param("bookingId", "1-2-3-4-5")).getResponse().getStatus());
+    }
+
+    private MvcResult assertStatements(int expected, RequestBuilder request) throws Exception {
+        SqlStatementCounter.start();
+        MvcResult result;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            assertEquals(expected, statements, "SQL statements");
+        }
+        return result;
+    }
+}
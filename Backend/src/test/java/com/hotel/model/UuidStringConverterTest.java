@@ -0,0 +1,31 @@
+package com.hotel.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidStringConverterTest {
+
+    private final UuidStringConverter converter = new UuidStringConverter();
+
+    @Test
+    void acceptsOnlyTheCanonicalForm() {
+        String id = "0192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0e";
+        assertTrue(UuidStringConverter.isCanonical(id));
+        assertTrue(UuidStringConverter.isCanonical(id.toUpperCase()));
+        assertEquals(UUID.fromString(id), converter.convertToDatabaseColumn(id));
+
+        // UUID.fromString accepts these, the column must not
+        for (String lenient : new String[]{"1-2-3-4-5", "0192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0", "+192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0e"}) {
+            assertFalse(UuidStringConverter.isCanonical(lenient), lenient);
+            assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn(lenient));
+        }
+        assertFalse(UuidStringConverter.isCanonical("not-a-booking-id"));
+        assertFalse(UuidStringConverter.isCanonical(null));
+    }
+}
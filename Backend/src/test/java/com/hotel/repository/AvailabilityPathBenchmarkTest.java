@@ -0,0 +1,263 @@
+package com.hotel.repository;
+
+import com.hotel.config.OverlappingStayCheck;
+import com.hotel.model.RoomType;
+import com.hotel.service.OccupancyIndex;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+// The availability checks before and after the half-open rework, on the real schema:
+//  - old: inclusive-overlap entity lists (findOverlappingBookings), sized or filtered in Java
+//  - new: countBookedRooms / existsActiveStayForRoom on the stay GiST indexes, and the in-memory OccupancyIndex
+// Opt-in (mvn test -Pbenchmark).
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class AvailabilityPathBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityPathBenchmarkTest.class);
+
+    private static final int ROOMS_PER_TYPE = 30;
+    private static final int STAYS_PER_ROOM = 120;
+    private static final int QUERIES = 2_000;
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":#\\{#(\\w+)\\.name\\(\\)}|:(\\w+)");
+
+    // The pre-rework JPQL as Hibernate ran it: every overlapping booking row, with turnover days counted as overlaps
+    private static final String OLD_OVERLAPPING = """
+            SELECT b.* FROM booking b JOIN room r ON r.id = b.room_id
+            WHERE b.branch_id = :branchId AND r.room_type = :#{#roomType.name()}
+            AND b.check_in <= :checkOut AND b.check_out >= :checkIn
+            AND b.status = 'ACTIVE'
+        """;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void newAvailabilityPathsAgainstTheEntityListQueries() throws Exception {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .callbacks(new OverlappingStayCheck())
+                .load()
+                .migrate();
+
+        LocalDate today = LocalDate.now();
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+            seed(connection, today);
+            OccupancyIndex occupancyIndex = occupancyIndex(connection);
+            List<Probe> probes = probes(connection, today);
+
+            Named oldList = Named.of(connection, OLD_OVERLAPPING);
+            Named count = Named.of(connection, queryOf("countBookedRooms", Long.class, RoomType.class, LocalDate.class, LocalDate.class));
+            Named exists = Named.of(connection, queryOf("existsActiveStayForRoom", Long.class, LocalDate.class, LocalDate.class));
+
+            // Warm the plans and the buffer cache for every path before timing
+            for (int round = 0; round < 2; round++) {
+                long oldAvailability = 0, oldRoomCheck = 0, newCount = 0, newExists = 0, memory = 0;
+                for (Probe probe : probes) {
+                    long start = System.nanoTime();
+                    oldList.rows(probe);
+                    oldAvailability += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    oldList.rows(probe).stream().anyMatch(row -> row.equals(probe.roomId()));
+                    oldRoomCheck += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    long booked = count.single(probe);
+                    newCount += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    boolean roomBooked = exists.single(probe) != 0;
+                    newExists += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    long bookedInMemory = 0;
+                    for (long roomId : occupancyIndex.roomIds(probe.branchId(), probe.roomType())) {
+                        if (!occupancyIndex.isRoomFree(roomId, probe.checkIn(), probe.checkOut())) {
+                            bookedInMemory++;
+                        }
+                    }
+                    boolean roomBookedInMemory = !occupancyIndex.isRoomFree(probe.roomId(), probe.checkIn(), probe.checkOut());
+                    memory += System.nanoTime() - start;
+
+                    assertEquals(booked, bookedInMemory, probe.toString());
+                    assertEquals(roomBooked, roomBookedInMemory, probe.toString());
+                }
+                if (round == 1) {
+                    logger.info("{} availability checks: old entity list {} ms, new COUNT {} ms, in-memory index {} ms (both questions)",
+                            QUERIES, oldAvailability / 1_000_000, newCount / 1_000_000, memory / 1_000_000);
+                    logger.info("{} single-room checks: old entity list + filter {} ms, new EXISTS {} ms",
+                            QUERIES, oldRoomCheck / 1_000_000, newExists / 1_000_000);
+                }
+            }
+        }
+    }
+
+    // ROOMS_PER_TYPE rooms of every type in both seeded branches, each booked two nights out of three from tomorrow
+    private static void seed(Connection connection, LocalDate today) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                INSERT INTO room (room_number, room_type, branch_id)
+                SELECT (b.id * 1000 + t.slot * 100 + n)::text, t.type, b.id
+                FROM branch b
+                CROSS JOIN (VALUES (1, 'STANDARD'), (2, 'DELUXE'), (3, 'LUXURY')) AS t(slot, type)
+                CROSS JOIN generate_series(1, %d) n
+            """.formatted(ROOMS_PER_TYPE));
+            statement.execute("""
+                INSERT INTO booking (booking_id, customer_id, customer_name, phone_number, email, branch_id, room_id,
+                                     check_in, check_out, price, discount, created_at, booking_time, status)
+                SELECT gen_random_uuid(), 1, 'Guest', '0000000000', 'guest@example.com', r.branch_id, r.id,
+                       DATE '%s' + 1 + g * 3 + (r.id %% 3), DATE '%s' + 3 + g * 3 + (r.id %% 3),
+                       1000, 0, CURRENT_DATE, TIME '12:00', 'ACTIVE'
+                FROM room r CROSS JOIN generate_series(0, %d) g
+            """.formatted(today, today, STAYS_PER_ROOM - 1));
+            statement.execute("ANALYZE");
+        }
+    }
+
+    // Loaded from the same tables through the repository methods it uses in the application
+    private static OccupancyIndex occupancyIndex(Connection connection) throws SQLException {
+        List<Object[]> rooms = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT branch_id, room_type, id FROM room ORDER BY room_number")) {
+            while (rows.next()) {
+                rooms.add(new Object[]{rows.getLong(1), RoomType.valueOf(rows.getString(2)), rows.getLong(3)});
+            }
+        }
+        List<Object[]> stays = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("""
+                 SELECT b.branch_id, r.room_type, b.check_in, b.check_out, b.room_id, b.id
+                 FROM booking b JOIN room r ON r.id = b.room_id
+                 WHERE b.status = 'ACTIVE' AND b.check_out > CURRENT_DATE
+             """)) {
+            while (rows.next()) {
+                stays.add(new Object[]{rows.getLong(1), RoomType.valueOf(rows.getString(2)),
+                        rows.getObject(3, LocalDate.class), rows.getObject(4, LocalDate.class), rows.getLong(5), rows.getLong(6)});
+            }
+        }
+        RoomRepository roomRepository = Mockito.mock(RoomRepository.class);
+        BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+        Mockito.when(roomRepository.findRoomKeys()).thenReturn(rooms);
+        Mockito.when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(stays);
+
+        OccupancyIndex occupancyIndex = new OccupancyIndex();
+        ReflectionTestUtils.setField(occupancyIndex, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(occupancyIndex, "bookingRepository", bookingRepository);
+        occupancyIndex.init();
+        return occupancyIndex;
+    }
+
+    // Random 1-5 night stays inside the booked period, each with a room of that branch and type
+    private static List<Probe> probes(Connection connection, LocalDate today) throws SQLException {
+        List<long[]> rooms = new ArrayList<>();
+        List<RoomType> types = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT branch_id, id, room_type FROM room")) {
+            while (rows.next()) {
+                rooms.add(new long[]{rows.getLong(1), rows.getLong(2)});
+                types.add(RoomType.valueOf(rows.getString(3)));
+            }
+        }
+        Random random = new Random(7);
+        List<Probe> probes = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            int pick = random.nextInt(rooms.size());
+            LocalDate checkIn = today.plusDays(1 + random.nextInt(STAYS_PER_ROOM * 3 - 10));
+            probes.add(new Probe(rooms.get(pick)[0], types.get(pick), rooms.get(pick)[1], checkIn, checkIn.plusDays(1 + random.nextInt(5))));
+        }
+        return probes;
+    }
+
+    private static String queryOf(String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return BookingRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private record Probe(long branchId, RoomType roomType, long roomId, LocalDate checkIn, LocalDate checkOut) {
+
+        Object value(String name) {
+            return switch (name) {
+                case "branchId" -> branchId;
+                case "roomType" -> roomType.name();
+                case "roomId" -> roomId;
+                case "checkIn" -> checkIn;
+                case "checkOut" -> checkOut;
+                default -> throw new IllegalArgumentException("Unknown parameter " + name);
+            };
+        }
+    }
+
+    // A repository query with its :named parameters turned into JDBC placeholders
+    private record Named(PreparedStatement statement, List<String> names) {
+
+        static Named of(Connection connection, String sql) throws SQLException {
+            List<String> names = new ArrayList<>();
+            Matcher matcher = NAMED_PARAMETER.matcher(sql);
+            StringBuilder jdbc = new StringBuilder();
+            while (matcher.find()) {
+                names.add(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+                matcher.appendReplacement(jdbc, "?");
+            }
+            matcher.appendTail(jdbc);
+            return new Named(connection.prepareStatement(jdbc.toString()), names);
+        }
+
+        private ResultSet execute(Probe probe) throws SQLException {
+            for (int i = 0; i < names.size(); i++) {
+                statement.setObject(i + 1, probe.value(names.get(i)));
+            }
+            return statement.executeQuery();
+        }
+
+        // Room ids of every returned booking row, hydrating each row's columns as the entity mapping did
+        List<Long> rows(Probe probe) throws SQLException {
+            List<Long> roomIds = new ArrayList<>();
+            try (ResultSet rows = execute(probe)) {
+                int columns = rows.getMetaData().getColumnCount();
+                while (rows.next()) {
+                    Object[] row = new Object[columns];
+                    for (int c = 0; c < columns; c++) {
+                        row[c] = rows.getObject(c + 1);
+                    }
+                    roomIds.add(rows.getLong("room_id"));
+                }
+            }
+            return roomIds;
+        }
+
+        long single(Probe probe) throws SQLException {
+            try (ResultSet rows = execute(probe)) {
+                rows.next();
+                Object value = rows.getObject(1);
+                return value instanceof Boolean bool ? (bool ? 1 : 0) : ((Number) value).longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.hotel.repository;
+
+import com.hotel.config.OverlappingStayCheck;
+import com.hotel.model.RoomType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the real migrations against Postgres (V4 needs btree_gist, daterange and EXCLUDE constraints)
+@Testcontainers(disabledWithoutDocker = true)
+class BookingStayIndexTest {
+
+    // One database per test: btree_gist is per database and V4 must run on a clean schema
+    @Container
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void overlappingActiveBookingsAreFlaggedBeforeTheNoOverlapConstraint() throws Exception {
+        flyway("3").migrate();
+        LocalDate day = LocalDate.of(2030, 1, 10);
+        String kept = UUID.randomUUID().toString();
+        String clash = UUID.randomUUID().toString();
+        String turnover = UUID.randomUUID().toString();
+        try (Connection connection = connect()) {
+            insertBooking(connection, kept, 1, day, day.plusDays(3));
+            insertBooking(connection, clash, 1, day.plusDays(2), day.plusDays(4));
+            insertBooking(connection, turnover, 2, day, day.plusDays(3));
+            insertBooking(connection, UUID.randomUUID().toString(), 2, day.plusDays(3), day.plusDays(5));
+        }
+
+        flyway(null).migrate();
+
+        try (Connection connection = connect()) {
+            assertEquals("ACTIVE", statusOf(connection, kept));
+            assertEquals("CONFLICT", statusOf(connection, clash));
+            assertEquals("ACTIVE", statusOf(connection, turnover));
+        }
+    }
+
+    @Test
+    void overlapQueriesUseTheStayIndexes() throws Exception {
+        flyway(null).migrate();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // 200 back-to-back-free stays per room
+            statement.execute("""
+                INSERT INTO booking (booking_id, customer_name, phone_number, email, branch_id, room_id,
+                                     check_in, check_out, price, discount, created_at, booking_time, status)
+                SELECT gen_random_uuid(), 'Guest', '0000000000', 'guest@example.com', r.branch_id, r.id,
+                       DATE '2030-01-01' + g * 3, DATE '2030-01-01' + g * 3 + 2, 1000, 0, CURRENT_DATE, TIME '12:00', 'ACTIVE'
+                FROM room r CROSS JOIN generate_series(0, 199) g
+            """);
+            statement.execute("ANALYZE booking");
+            // Tiny tables would be read sequentially anyway; this asks whether the index can serve the query at all
+            statement.execute("SET enable_seqscan = off");
+
+            String countPlan = explain(statement, queryOf("countBookedRooms", Long.class, RoomType.class, LocalDate.class, LocalDate.class));
+            String existsPlan = explain(statement, queryOf("existsActiveStayForRoom", Long.class, LocalDate.class, LocalDate.class));
+
+            assertTrue(countPlan.contains("idx_booking_branch_stay_active"), countPlan);
+            assertTrue(existsPlan.contains("booking_room_stay_no_overlap"), existsPlan);
+        }
+    }
+
+    @Test
+    void bookingIdUniqueIndexIsOwnedByTheMigrations() throws Exception {
+        flyway("7").migrate();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // What Hibernate's ddl-auto used to add for @Column(unique = true)
+            statement.execute("ALTER TABLE booking ADD CONSTRAINT uk_hibernate_booking_id UNIQUE (booking_id)");
+        }
+
+        flyway(null).migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT string_agg(indexname, ',') FROM pg_indexes WHERE tablename = 'booking' AND indexdef LIKE '%UNIQUE%(booking_id)'")) {
+            rows.next();
+            assertEquals("ux_booking_booking_id", rows.getString(1));
+        }
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .callbacks(new OverlappingStayCheck());
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    // The repository's own SQL, with literal parameters so EXPLAIN can plan it
+    private static String queryOf(String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        String sql = BookingRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+        return sql.replace(":#{#roomType.name()}", "'STANDARD'")
+                .replace(":branchId", "1")
+                .replace(":roomId", "1")
+                .replace(":checkIn", "DATE '2030-02-01'")
+                .replace(":checkOut", "DATE '2030-02-05'");
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void insertBooking(Connection connection, String bookingId, long roomId, LocalDate checkIn, LocalDate checkOut)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO booking (booking_id, customer_name, phone_number, email, branch_id, room_id,
+                                     check_in, check_out, price, discount, created_at, booking_time, status)
+                SELECT ?, 'Guest', '0000000000', 'guest@example.com', r.branch_id, r.id, ?, ?, 1000, 0, CURRENT_DATE, TIME '12:00', 'ACTIVE'
+                FROM room r WHERE r.id = ?
+            """)) {
+            insert.setString(1, bookingId);
+            insert.setObject(2, checkIn);
+            insert.setObject(3, checkOut);
+            insert.setLong(4, roomId);
+            assertEquals(1, insert.executeUpdate());
+        }
+    }
+
+    private static String statusOf(Connection connection, String bookingId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT status FROM booking WHERE booking_id = ?::uuid")) {
+            select.setString(1, bookingId);
+            try (ResultSet rows = select.executeQuery()) {
+                rows.next();
+                return rows.getString(1);
+            }
+        }
+    }
+}
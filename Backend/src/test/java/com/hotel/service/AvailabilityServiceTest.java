@@ -0,0 +1,165 @@
+package com.hotel.service;
+
+import com.hotel.dto.RoomAvailabilityDTO;
+import com.hotel.model.Branch;
+import com.hotel.model.RoomType;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.BranchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    private static final long BRANCH = 1L;
+    private static final long ROOM = 10L;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock private OccupancyIndex occupancyIndex;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private BranchRepository branchRepository;
+    @Spy private RoomHoldManager roomHoldManager = new RoomHoldManager();
+
+    @InjectMocks private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(roomHoldManager, "holdMinutes", 30L);
+        when(occupancyIndex.getTrackedFrom()).thenReturn(TODAY);
+    }
+
+    @Test
+    void indexedRangesAreAnsweredInMemory() {
+        when(occupancyIndex.isRoomFree(ROOM, TODAY, TODAY.plusDays(2))).thenReturn(true);
+
+        assertTrue(availabilityService.isRoomFree(ROOM, TODAY, TODAY.plusDays(2)));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void rangesBeforeTheIndexFallBackToTheDatabase() {
+        LocalDate lastWeek = TODAY.minusDays(7);
+        when(bookingRepository.existsActiveStayForRoom(ROOM, lastWeek, lastWeek.plusDays(2))).thenReturn(true);
+        when(bookingRepository.countBookedRooms(BRANCH, RoomType.STANDARD, lastWeek, lastWeek.plusDays(2))).thenReturn(3L);
+
+        assertFalse(availabilityService.isRoomFree(ROOM, lastWeek, lastWeek.plusDays(2)));
+        assertEquals(3, availabilityService.getBookedRooms(BRANCH, RoomType.STANDARD, lastWeek, lastWeek.plusDays(2)));
+        verify(occupancyIndex, never()).isRoomFree(ROOM, lastWeek, lastWeek.plusDays(2));
+    }
+
+    @Test
+    void matrixBeforeTheIndexRunsOneGroupedCount() {
+        LocalDate lastWeek = TODAY.minusDays(7);
+        Branch kolkata = new Branch();
+        kolkata.setId(BRANCH);
+        kolkata.setName("Kolkata");
+        Branch mumbai = new Branch();
+        mumbai.setId(2L);
+        mumbai.setName("Mumbai");
+        when(branchRepository.findAll()).thenReturn(List.of(kolkata, mumbai));
+        when(occupancyIndex.totalRooms(anyLong(), any())).thenReturn(4);
+        when(bookingRepository.countBookedRoomsPerBranchAndType(lastWeek, lastWeek.plusDays(2))).thenReturn(List.of(
+                new Object[]{BRANCH, "STANDARD", 3L},
+                new Object[]{2L, "DELUXE", 1L}));
+
+        List<RoomAvailabilityDTO> matrix = availabilityService.getAvailabilityMatrix(lastWeek, lastWeek.plusDays(2));
+
+        assertEquals(2 * RoomType.values().length, matrix.size());
+        for (RoomAvailabilityDTO cell : matrix) {
+            int expected = cell.getBranchId() == BRANCH && cell.getRoomType() == RoomType.STANDARD ? 3
+                    : cell.getBranchId() == 2L && cell.getRoomType() == RoomType.DELUXE ? 1 : 0;
+            assertEquals(expected, cell.getBookedRooms(), cell.toString());
+            assertEquals(4 - expected, cell.getFreeRooms());
+        }
+        verify(bookingRepository, never()).countBookedRooms(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void heldRoomIsNotFreeForOthersButCanBeRefreshedByItsHolder() {
+        when(occupancyIndex.isRoomFree(ROOM, TODAY, TODAY.plusDays(3))).thenReturn(true);
+
+        assertTrue(availabilityService.holdRoom(ROOM, TODAY, TODAY.plusDays(3), "alice"));
+
+        assertFalse(availabilityService.isRoomFree(ROOM, TODAY, TODAY.plusDays(3)));
+        assertFalse(availabilityService.holdRoom(ROOM, TODAY.plusDays(1), TODAY.plusDays(2), "bob"));
+        assertTrue(availabilityService.holdRoom(ROOM, TODAY, TODAY.plusDays(3), "alice"));
+    }
+
+    @Test
+    void holdsAreHalfOpenToo() {
+        when(occupancyIndex.isRoomFree(ROOM, TODAY, TODAY.plusDays(2))).thenReturn(true);
+        when(occupancyIndex.isRoomFree(ROOM, TODAY.plusDays(2), TODAY.plusDays(4))).thenReturn(true);
+
+        assertTrue(availabilityService.holdRoom(ROOM, TODAY, TODAY.plusDays(2), "alice"));
+
+        // Same-day turnover against a hold
+        assertTrue(availabilityService.isRoomFree(ROOM, TODAY.plusDays(2), TODAY.plusDays(4)));
+        assertTrue(availabilityService.holdRoom(ROOM, TODAY.plusDays(2), TODAY.plusDays(4), "bob"));
+    }
+
+    @Test
+    void releasedHoldFreesTheRoom() {
+        when(occupancyIndex.isRoomFree(ROOM, TODAY, TODAY.plusDays(2))).thenReturn(true);
+        availabilityService.holdRoom(ROOM, TODAY, TODAY.plusDays(2), "alice");
+
+        availabilityService.releaseHold(ROOM, TODAY, TODAY.plusDays(2), "alice");
+
+        assertTrue(availabilityService.isRoomFree(ROOM, TODAY, TODAY.plusDays(2)));
+    }
+
+    @Test
+    void bookedRoomCannotBeHeld() {
+        when(occupancyIndex.isRoomFree(ROOM, TODAY, TODAY.plusDays(2))).thenReturn(false);
+
+        assertFalse(availabilityService.holdRoom(ROOM, TODAY, TODAY.plusDays(2), "alice"));
+        assertFalse(roomHoldManager.isHeld(ROOM, TODAY, TODAY.plusDays(2)));
+    }
+
+    @Test
+    void calendarSubtractsHeldRoomsUnlessAlreadyBooked() {
+        when(occupancyIndex.totalRooms(BRANCH, RoomType.STANDARD)).thenReturn(3);
+        when(occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY, 4)).thenReturn(new int[]{1, 1, 0, 0});
+        when(occupancyIndex.roomIds(BRANCH, RoomType.STANDARD)).thenReturn(new long[]{10L, 11L, 12L});
+        // Room 10 is held for nights 0-2; it is also booked on night 0
+        when(occupancyIndex.isRoomFree(10L, TODAY, TODAY.plusDays(3))).thenReturn(true);
+        availabilityService.holdRoom(10L, TODAY, TODAY.plusDays(3), "alice");
+        when(occupancyIndex.isRoomFree(10L, TODAY, TODAY.plusDays(1))).thenReturn(false);
+        when(occupancyIndex.isRoomFree(10L, TODAY.plusDays(1), TODAY.plusDays(2))).thenReturn(true);
+        when(occupancyIndex.isRoomFree(10L, TODAY.plusDays(2), TODAY.plusDays(3))).thenReturn(true);
+
+        int[] free = availabilityService.getAvailabilityCalendar(BRANCH, RoomType.STANDARD, TODAY, 4).getFreeRooms();
+
+        assertArrayEquals(new int[]{2, 1, 2, 3}, free);
+    }
+
+    @Test
+    void bookedRoomsCountsHeldAndBookedRoomsOnce() {
+        when(occupancyIndex.roomIds(BRANCH, RoomType.STANDARD)).thenReturn(new long[]{10L, 11L, 12L});
+        when(occupancyIndex.isRoomFree(10L, TODAY, TODAY.plusDays(2))).thenReturn(true);
+        when(occupancyIndex.isRoomFree(11L, TODAY, TODAY.plusDays(2))).thenReturn(false);
+        when(occupancyIndex.isRoomFree(12L, TODAY, TODAY.plusDays(2))).thenReturn(true);
+        availabilityService.holdRoom(10L, TODAY, TODAY.plusDays(2), "alice");
+
+        assertEquals(2, availabilityService.getBookedRooms(BRANCH, RoomType.STANDARD, TODAY, TODAY.plusDays(2)));
+    }
+}
@@ -0,0 +1,37 @@
+package com.hotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIdGeneratorTest {
+
+    private final BookingIdGenerator generator = new BookingIdGenerator();
+
+    @Test
+    void idsAreVersion7WithTheCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = generator.nextBookingId();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1, "timestamp " + millis);
+    }
+
+    @Test
+    void idsSortInCreationOrderEvenWithinOneMillisecond() {
+        // Far more than 4096 ids, so some milliseconds overflow the counter and borrow the next one
+        UUID previous = generator.nextBookingId();
+        for (int i = 0; i < 50_000; i++) {
+            UUID next = generator.nextBookingId();
+            // Postgres compares uuids as unsigned bytes, which is the order of the string form
+            assertTrue(next.toString().compareTo(previous.toString()) > 0, previous + " then " + next);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.hotel.service;
+
+import com.hotel.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class BookingServiceTest {
+
+    @Mock private BookingRepository bookingRepository;
+
+    @InjectMocks private BookingService bookingService;
+
+    @Test
+    void malformedBookingIdsAreNotFoundWithoutAQuery() {
+        // UUID.fromString would take this one and query for 00000001-0002-0003-0004-000000000005
+        String malformed = "1-2-3-4-5";
+
+        assertNull(bookingService.getBookingWithRoomAndBranch(malformed));
+        assertEquals("Booking not found",
+                assertThrows(RuntimeException.class, () -> bookingService.getBookingSummary(malformed)).getMessage());
+        assertEquals("Booking not found or already cancelled",
+                assertThrows(RuntimeException.class, () -> bookingService.cancelBooking("receipt.pdf")).getMessage());
+        verifyNoInteractions(bookingRepository);
+    }
+}
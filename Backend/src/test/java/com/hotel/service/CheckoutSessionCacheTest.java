@@ -0,0 +1,41 @@
+package com.hotel.service;
+
+import com.stripe.model.checkout.Session;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckoutSessionCacheTest {
+
+    private final CheckoutSessionCache cache = new CheckoutSessionCache();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    void repeatedRequestGetsTheSameSession() {
+        String first = cache.getOrCreate("key:ada@example.com:k1", "12:2026-11-01:2026-11-03", this::newSession);
+        String second = cache.getOrCreate("key:ada@example.com:k1", "12:2026-11-01:2026-11-03", this::newSession);
+
+        assertEquals(first, second);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void keyReusedForAnotherStayIsRefused() {
+        cache.getOrCreate("key:ada@example.com:k1", "12:2026-11-01:2026-11-03", this::newSession);
+
+        assertThrows(CheckoutSessionCache.ConflictingRequestException.class,
+                () -> cache.getOrCreate("key:ada@example.com:k1", "14:2026-12-01:2026-12-05", this::newSession));
+        assertEquals(1, created.get());
+    }
+
+    private Session newSession() {
+        Session session = new Session();
+        session.setId("cs_test_" + created.incrementAndGet());
+        session.setExpiresAt(Instant.now().getEpochSecond() + 1800);
+        return session;
+    }
+}
@@ -0,0 +1,134 @@
+package com.hotel.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MailDeliveryEngineTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MailDeliveryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        engine = new MailDeliveryEngine();
+        ReflectionTestUtils.setField(engine, "mailSender", mailSender);
+        ReflectionTestUtils.setField(engine, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(engine, "poolSize", 2);
+        ReflectionTestUtils.setField(engine, "batchSize", 5);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void deliversEveryQueuedMessageOnce() throws Exception {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(engine.submit(message("guest" + i + "@example.com")));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, greenMail.getReceivedMessages().length);
+        assertEquals(12.0, meterRegistry.counter("mail.sent").count());
+        assertEquals(0.0, meterRegistry.counter("mail.failed").count());
+    }
+
+    @Test
+    void reconnectsWhenServerDroppedPooledConnection() throws Exception {
+        engine.submit(message("first@example.com")).get(10, TimeUnit.SECONDS);
+
+        greenMail.stop();
+        greenMail.start();
+
+        engine.submit(message("second@example.com")).get(10, TimeUnit.SECONDS);
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(2.0, meterRegistry.counter("mail.sent").count());
+    }
+
+    @Test
+    void onlyQueuedMessagesCanBeCancelled() throws Exception {
+        MailDeliveryEngine idle = new MailDeliveryEngine();
+        ReflectionTestUtils.setField(idle, "mailSender", mailSender);
+        ReflectionTestUtils.setField(idle, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(idle, "poolSize", 0);
+        idle.start();
+
+        CompletableFuture<Void> queued = idle.submit(message("queued@example.com"));
+        assertTrue(queued.cancel(false));
+        assertFalse((Boolean) ReflectionTestUtils.invokeMethod(queued, "claim"));
+
+        CompletableFuture<Void> sending = idle.submit(message("sending@example.com"));
+        assertTrue((Boolean) ReflectionTestUtils.invokeMethod(sending, "claim"));
+        assertFalse(sending.cancel(false));
+        assertFalse(sending.isDone());
+    }
+
+    @Test
+    void partialRecipientFailureIsNotResent() throws Exception {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(false);
+        Address accepted = new InternetAddress("guest@example.com");
+        Address rejected = new InternetAddress("nobody@example.com");
+        SendFailedException partial = new SendFailedException("550 rejected", null,
+                new Address[]{accepted}, new Address[0], new Address[]{rejected});
+
+        assertFalse(MailDeliveryEngine.isConnectionFailure(transport, partial));
+    }
+
+    @Test
+    void droppedConnectionIsResent() {
+        Transport connected = mock(Transport.class);
+        when(connected.isConnected()).thenReturn(true);
+        Transport dropped = mock(Transport.class);
+        when(dropped.isConnected()).thenReturn(false);
+
+        assertTrue(MailDeliveryEngine.isConnectionFailure(connected,
+                new MessagingException("Can't send command", new IOException("Broken pipe"))));
+        assertTrue(MailDeliveryEngine.isConnectionFailure(dropped, new MessagingException("[EOF]")));
+        assertFalse(MailDeliveryEngine.isConnectionFailure(connected, new MessagingException("554 Message rejected")));
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom("hotel@example.com");
+        message.setRecipients(MimeMessage.RecipientType.TO, to);
+        message.setSubject("Booking confirmed");
+        message.setText("See you soon");
+        return message;
+    }
+}
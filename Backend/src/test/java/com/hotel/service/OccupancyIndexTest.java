@@ -0,0 +1,160 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.model.Branch;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyIndexTest {
+
+    private static final long BRANCH = 1L;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private RoomRepository roomRepository;
+
+    @InjectMocks private OccupancyIndex occupancyIndex;
+
+    private final List<Object[]> activeStays = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findRoomKeys()).thenReturn(List.of(
+                new Object[]{BRANCH, RoomType.STANDARD, 10L},
+                new Object[]{BRANCH, RoomType.STANDARD, 11L}));
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenAnswer(invocation -> activeStays);
+    }
+
+    @Test
+    void countsEachNightOfAHalfOpenStay() {
+        occupancyIndex.rebuild();
+        occupancyIndex.recordBooking(booking(1L, 10L, TODAY.plusDays(1), TODAY.plusDays(3)));
+
+        assertArrayEquals(new int[]{0, 1, 1, 0}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY, 4));
+        assertEquals(2, occupancyIndex.totalRooms(BRANCH, RoomType.STANDARD));
+    }
+
+    @Test
+    void bookingAlreadyLoadedByARebuildIsNotCountedTwice() {
+        Booking booking = booking(1L, 10L, TODAY, TODAY.plusDays(2));
+        // The booking committed, then a rebuild ran before recordBooking
+        activeStays.add(new Object[]{BRANCH, RoomType.STANDARD, TODAY, TODAY.plusDays(2), 10L, 1L});
+        occupancyIndex.rebuild();
+
+        occupancyIndex.recordBooking(booking);
+
+        assertEquals(1, occupancyIndex.peakOccupancy(BRANCH, RoomType.STANDARD, TODAY, TODAY.plusDays(2)));
+    }
+
+    @Test
+    void releaseAlreadyDroppedByARebuildIsNotSubtractedTwice() {
+        Booking cancelled = booking(1L, 10L, TODAY, TODAY.plusDays(2));
+        Booking other = booking(2L, 11L, TODAY, TODAY.plusDays(2));
+        activeStays.add(new Object[]{BRANCH, RoomType.STANDARD, TODAY, TODAY.plusDays(2), 11L, 2L});
+        // The cancellation committed, then a rebuild (which no longer sees it) ran before releaseBooking
+        occupancyIndex.rebuild();
+
+        occupancyIndex.releaseBooking(cancelled);
+
+        assertEquals(1, occupancyIndex.peakOccupancy(BRANCH, RoomType.STANDARD, TODAY, TODAY.plusDays(2)));
+        assertFalse(occupancyIndex.isRoomFree(other.getRoom().getId(), TODAY, TODAY.plusDays(1)));
+        assertTrue(occupancyIndex.isRoomFree(cancelled.getRoom().getId(), TODAY, TODAY.plusDays(1)));
+    }
+
+    @Test
+    void dailyRollDropsPastNightsAndCheckedOutStays() {
+        occupancyIndex.rebuild();
+        occupancyIndex.recordBooking(booking(1L, 10L, TODAY, TODAY.plusDays(2)));
+        occupancyIndex.recordBooking(booking(2L, 11L, TODAY.plusDays(1), TODAY.plusDays(4)));
+        assertArrayEquals(new int[]{1, 2, 1, 1}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY, 4));
+
+        occupancyIndex.roll(TODAY.plusDays(2));
+
+        assertEquals(TODAY.plusDays(2), occupancyIndex.getTrackedFrom());
+        assertArrayEquals(new int[]{0, 0, 1, 1, 0}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY, 5));
+        // Room 10's only stay checked out: its calendar is gone; room 11 is still in-house
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(occupancyIndex, "calendars")).size());
+        assertEquals(-1, occupancyIndex.gapBefore(10L, TODAY.plusDays(3)));
+        assertFalse(occupancyIndex.isRoomFree(11L, TODAY.plusDays(3), TODAY.plusDays(4)));
+
+        // Bookings keep counting normally on the trimmed counters
+        occupancyIndex.recordBooking(booking(3L, 10L, TODAY.plusDays(2), TODAY.plusDays(3)));
+        assertArrayEquals(new int[]{2, 1, 0}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY.plusDays(2), 3));
+    }
+
+    @Test
+    void releasingAnInHouseStayAfterTheRollIsNotAnUnderflow() {
+        ReflectionTestUtils.setField(occupancyIndex, "meterRegistry", meterRegistry);
+        occupancyIndex.rebuild();
+        Booking inHouse = booking(2L, 11L, TODAY.plusDays(1), TODAY.plusDays(4));
+        occupancyIndex.recordBooking(inHouse);
+        occupancyIndex.roll(TODAY.plusDays(2));
+
+        occupancyIndex.releaseBooking(inHouse);
+
+        assertArrayEquals(new int[]{0, 0}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY.plusDays(2), 2));
+        assertEquals(0.0, meterRegistry.counter("occupancy.index.underflow").count());
+        verify(roomRepository, times(1)).findRoomKeys();
+    }
+
+    @Test
+    void countGoingBelowZeroIsReportedAndRebuilds() {
+        ReflectionTestUtils.setField(occupancyIndex, "meterRegistry", meterRegistry);
+        occupancyIndex.rebuild();
+        Booking booking = booking(1L, 10L, TODAY, TODAY.plusDays(2));
+        occupancyIndex.recordBooking(booking);
+        // Counts drifted from the stays behind them (the bug this guards against)
+        Map<?, ?> byType = (Map<?, ?>) ((Map<?, ?>) ReflectionTestUtils.getField(occupancyIndex, "counters")).get(BRANCH);
+        ReflectionTestUtils.invokeMethod(byType.get(RoomType.STANDARD), "add", TODAY, TODAY.plusDays(1), -1);
+
+        occupancyIndex.releaseBooking(booking);
+
+        assertEquals(1.0, meterRegistry.counter("occupancy.index.underflow").count());
+        verify(roomRepository, times(2)).findRoomKeys();
+        assertArrayEquals(new int[]{0, 0}, occupancyIndex.nightlyOccupancy(BRANCH, RoomType.STANDARD, TODAY, 2));
+    }
+
+    static Booking booking(long id, long roomId, LocalDate checkIn, LocalDate checkOut) {
+        Branch branch = new Branch();
+        branch.setId(BRANCH);
+        Room room = new Room();
+        room.setId(roomId);
+        room.setRoomType(RoomType.STANDARD);
+        room.setBranch(branch);
+
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setBranch(branch);
+        booking.setRoom(room);
+        booking.setCheckIn(checkIn);
+        booking.setCheckOut(checkOut);
+        booking.setStatus("ACTIVE");
+        return booking;
+    }
+}
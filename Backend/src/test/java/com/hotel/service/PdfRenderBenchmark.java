@@ -0,0 +1,119 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.model.Branch;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+// Receipt renders per second: a fresh ITextRenderer per call (the old PdfService) against the warm pool.
+// Run main (or org.openjdk.jmh.Main PdfRenderBenchmark) on the test classpath after mvn test-compile
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(2)
+public class PdfRenderBenchmark {
+
+    private SpringTemplateEngine templateEngine;
+    private PdfService pdfService;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        // Pool as large as the benchmark's thread count, so neither side waits for a renderer
+        pdfService = new PdfService();
+        ReflectionTestUtils.setField(pdfService, "templateEngine", templateEngine);
+        ReflectionTestUtils.setField(pdfService, "hotelName", "Benchmark Hotel");
+        ReflectionTestUtils.setField(pdfService, "renderers", 2);
+        ReflectionTestUtils.setField(pdfService, "renderTimeoutSeconds", 30L);
+        ReflectionTestUtils.setField(pdfService, "fontDir", "");
+        pdfService.init();
+
+        booking = sampleBooking();
+    }
+
+    @Benchmark
+    public byte[] rendererPerCall() throws Exception {
+        Context context = new Context();
+        context.setVariable("hotelName", "Benchmark Hotel");
+        context.setVariable("booking", booking);
+        String html = templateEngine.process("receipt", context);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ITextRenderer renderer = new ITextRenderer();
+        renderer.setDocumentFromString(html);
+        renderer.layout();
+        renderer.createPDF(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pooledRenderer() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfService.writeReceipt(booking, out);
+        return out.toByteArray();
+    }
+
+    private static Booking sampleBooking() {
+        Branch branch = new Branch();
+        branch.setName("Kolkata");
+        Room room = new Room();
+        room.setRoomNumber("101");
+        room.setRoomType(RoomType.LUXURY);
+        room.setBranch(branch);
+
+        Booking booking = new Booking();
+        booking.setBookingId("0192a5f0-7c1e-7a3b-8d4e-5f6a7b8c9d0e");
+        booking.setCustomerId(42L);
+        booking.setCustomerName("Ada Lovelace");
+        booking.setEmail("ada@example.com");
+        booking.setPhoneNumber("5550100");
+        booking.setBranch(branch);
+        booking.setRoom(room);
+        booking.setCheckIn(LocalDate.of(2026, 11, 1));
+        booking.setCheckOut(LocalDate.of(2026, 11, 4));
+        booking.setCreatedAt(LocalDate.of(2026, 10, 18));
+        booking.setBookingTime(LocalTime.of(9, 30));
+        booking.setPrice(15000.0);
+        booking.setStatus("ACTIVE");
+        return booking;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PdfRenderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
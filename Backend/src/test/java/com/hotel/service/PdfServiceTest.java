@@ -0,0 +1,109 @@
+package com.hotel.service;
+
+import com.hotel.model.Booking;
+import com.hotel.model.Branch;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfServiceTest {
+
+    private static final int RENDERERS = 3;
+
+    private final PdfService pdfService = new PdfService();
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        ReflectionTestUtils.setField(pdfService, "templateEngine", templateEngine);
+        ReflectionTestUtils.setField(pdfService, "hotelName", "Test Hotel");
+        ReflectionTestUtils.setField(pdfService, "renderers", RENDERERS);
+        ReflectionTestUtils.setField(pdfService, "renderTimeoutSeconds", 30L);
+        ReflectionTestUtils.setField(pdfService, "fontDir", "");
+        pdfService.init();
+    }
+
+    @Test
+    void concurrentRendersThroughThePoolAreByteStable() throws Exception {
+        List<Booking> bookings = List.of(booking("A-1", "101"), booking("B-2", "202"), booking("C-3", "303"));
+        List<String> expected = new ArrayList<>();
+        for (Booking booking : bookings) {
+            expected.add(normalized(pdfService.generateReceipt(booking)));
+        }
+        assertEquals(bookings.size(), new HashSet<>(expected).size(), "each booking renders a distinct receipt");
+
+        // Many more callers than renderers, interleaving different bookings on the same pooled renderers
+        ExecutorService callers = Executors.newFixedThreadPool(RENDERERS * 4);
+        try {
+            List<Future<byte[]>> renders = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                Booking booking = bookings.get(i % bookings.size());
+                renders.add(callers.submit(() -> pdfService.generateReceipt(booking)));
+            }
+            for (int i = 0; i < renders.size(); i++) {
+                byte[] pdf = renders.get(i).get(60, TimeUnit.SECONDS);
+                assertTrue(new String(pdf, 0, 5, StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+                assertEquals(expected.get(i % bookings.size()), normalized(pdf), "render " + i + " differs");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    // Creation/modification dates and the document ID change on every render; everything else must not
+    private static String normalized(byte[] pdf) {
+        return new String(pdf, StandardCharsets.ISO_8859_1)
+                .replaceAll("/(CreationDate|ModDate)\\s*\\([^)]*\\)", "/$1()")
+                .replaceAll("/ID\\s*\\[[^]]*]", "/ID[]");
+    }
+
+    private static Booking booking(String bookingId, String roomNumber) {
+        Branch branch = new Branch();
+        branch.setName("Downtown");
+        Room room = new Room();
+        room.setRoomNumber(roomNumber);
+        room.setRoomType(RoomType.DELUXE);
+        room.setBranch(branch);
+
+        Booking booking = new Booking();
+        booking.setBookingId(bookingId);
+        booking.setCustomerId(42L);
+        booking.setCustomerName("Ada Lovelace");
+        booking.setEmail("ada@example.com");
+        booking.setPhoneNumber("5550100");
+        booking.setBranch(branch);
+        booking.setRoom(room);
+        booking.setCheckIn(LocalDate.of(2026, 11, 1));
+        booking.setCheckOut(LocalDate.of(2026, 11, 4));
+        booking.setCreatedAt(LocalDate.of(2026, 10, 18));
+        booking.setBookingTime(LocalTime.of(9, 30));
+        booking.setPrice(420.0);
+        booking.setStatus("ACTIVE");
+        return booking;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hotel.service;
+
+import com.hotel.model.RoomType;
+import com.hotel.repository.BookingRepository;
+import com.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static com.hotel.service.OccupancyIndexTest.booking;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateEngineTest {
+
+    private static final long BRANCH = 1L;
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate NIGHT = TODAY.plusDays(3);
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private RoomRepository roomRepository;
+    @Mock private PriceCatalog priceCatalog;
+
+    private final OccupancyIndex occupancyIndex = new OccupancyIndex();
+    private final RateEngine rateEngine = new RateEngine();
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findRoomKeys()).thenReturn(List.of(
+                new Object[]{BRANCH, RoomType.STANDARD, 10L},
+                new Object[]{BRANCH, RoomType.STANDARD, 11L}));
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of());
+        when(priceCatalog.pricePerNight(RoomType.STANDARD)).thenReturn(100.0);
+        lenient().when(priceCatalog.version()).thenReturn(1L);
+        ReflectionTestUtils.setField(occupancyIndex, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(occupancyIndex, "roomRepository", roomRepository);
+
+        ReflectionTestUtils.setField(rateEngine, "priceCatalog", priceCatalog);
+        ReflectionTestUtils.setField(rateEngine, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(rateEngine, "horizonDays", 30);
+        ReflectionTestUtils.setField(rateEngine, "weekendMultiplier", 1.0);
+        // The uplift applies once both rooms are taken
+        ReflectionTestUtils.setField(rateEngine, "highOccupancyThreshold", 1.0);
+        ReflectionTestUtils.setField(rateEngine, "highOccupancyMultiplier", 2.0);
+        rateEngine.init();
+        occupancyIndex.init();
+    }
+
+    @Test
+    void upliftFollowsNightsCrossingTheThreshold() {
+        assertEquals(100.0, quoteNight());
+
+        occupancyIndex.recordBooking(booking(1L, 10L, NIGHT, NIGHT.plusDays(1)));
+        assertEquals(100.0, quoteNight());
+
+        occupancyIndex.recordBooking(booking(2L, 11L, NIGHT.minusDays(1), NIGHT.plusDays(1)));
+        assertEquals(200.0, quoteNight());
+        assertEquals(300.0, rateEngine.quote(BRANCH, RoomType.STANDARD, NIGHT.minusDays(1), NIGHT.plusDays(1)));
+
+        occupancyIndex.releaseBooking(booking(1L, 10L, NIGHT, NIGHT.plusDays(1)));
+        assertEquals(100.0, quoteNight());
+    }
+
+    @Test
+    void bookingThatFlipsNoUpliftKeepsTheCalendar() {
+        quoteNight();
+        Object before = calendar();
+
+        occupancyIndex.recordBooking(booking(1L, 10L, NIGHT, NIGHT.plusDays(2)));
+        quoteNight();
+        assertSame(before, calendar());
+
+        occupancyIndex.recordBooking(booking(2L, 11L, NIGHT, NIGHT.plusDays(1)));
+        quoteNight();
+        assertNotSame(before, calendar());
+    }
+
+    @Test
+    void withoutUpliftBookingsNeverRebuild() {
+        ReflectionTestUtils.setField(rateEngine, "highOccupancyMultiplier", 1.0);
+        quoteNight();
+        Object before = calendar();
+
+        occupancyIndex.recordBooking(booking(1L, 10L, NIGHT, NIGHT.plusDays(1)));
+        occupancyIndex.recordBooking(booking(2L, 11L, NIGHT, NIGHT.plusDays(1)));
+
+        assertEquals(100.0, quoteNight());
+        assertSame(before, calendar());
+    }
+
+    @Test
+    void indexRebuildInvalidatesCalendars() {
+        quoteNight();
+        Object before = calendar();
+
+        occupancyIndex.rebuild();
+        quoteNight();
+
+        assertNotSame(before, calendar());
+    }
+
+    @Test
+    void dailyRollMovesTheCalendarForward() {
+        quoteNight();
+        Object before = calendar();
+
+        occupancyIndex.roll(TODAY.plusDays(1));
+        assertEquals(100.0, quoteNight());
+
+        assertNotSame(before, calendar());
+        assertEquals(TODAY.plusDays(1).toEpochDay(), ReflectionTestUtils.getField(calendar(), "firstDay"));
+    }
+
+    private double quoteNight() {
+        return rateEngine.quote(BRANCH, RoomType.STANDARD, NIGHT, NIGHT.plusDays(1));
+    }
+
+    private Object calendar() {
+        Map<?, ?> slots = (Map<?, ?>) ReflectionTestUtils.getField(rateEngine, "slots");
+        assertEquals(1, slots.size());
+        Object slot = ((Map<?, ?>) slots.get(BRANCH)).get(RoomType.STANDARD);
+        return ReflectionTestUtils.getField(slot, "calendar");
+    }
+}
@@ -0,0 +1,67 @@
+package com.hotel.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReceiptStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final ReceiptStore receiptStore = new ReceiptStore();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(receiptStore, "receiptsDir", dir.toString());
+        ReflectionTestUtils.setField(receiptStore, "maxIdleDays", 30L);
+        receiptStore.init();
+    }
+
+    @Test
+    void pruneDeletesIdleReceiptsAndAbandonedTempFiles() throws IOException {
+        Path idle = file("ab/ab01.pdf", Duration.ofDays(31));
+        Path recent = file("ab/ab02.pdf", Duration.ofDays(2));
+        Path abandoned = file("cd/cd01123.tmp", Duration.ofHours(2));
+        Path rendering = file("cd/cd02456.tmp", Duration.ofMinutes(1));
+
+        assertEquals(2, receiptStore.prune());
+
+        assertFalse(Files.exists(idle));
+        assertFalse(Files.exists(abandoned));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(rendering));
+    }
+
+    @Test
+    void servedReceiptIsKeptAlive() throws IOException {
+        String fingerprint = "ef0123";
+        Path stored = file("ef/" + fingerprint + ".pdf", Duration.ofDays(29));
+
+        assertEquals(stored, receiptStore.receiptFor(null, fingerprint));
+        ReflectionTestUtils.setField(receiptStore, "maxIdleDays", 1L);
+
+        assertEquals(0, receiptStore.prune());
+        assertTrue(Files.exists(stored));
+    }
+
+    private Path file(String name, Duration age) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1});
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomCalendarTest {
+
+    @Test
+    void staysAreHalfOpen() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.add(1, 10, 13);
+
+        assertFalse(calendar.isFree(10, 13));
+        assertFalse(calendar.isFree(12, 14));
+        assertFalse(calendar.isFree(8, 11));
+        assertFalse(calendar.isFree(11, 12));
+        assertFalse(calendar.isFree(5, 20));
+    }
+
+    @Test
+    void sameDayTurnoverIsFree() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.add(1, 10, 13);
+
+        // Check-in on the previous guest's check-out day, and check-out on the next guest's check-in day
+        assertTrue(calendar.isFree(13, 15));
+        assertTrue(calendar.isFree(7, 10));
+    }
+
+    @Test
+    void freeBetweenTwoStays() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.add(1, 10, 13);
+        calendar.add(2, 16, 18);
+
+        assertTrue(calendar.isFree(13, 16));
+        assertFalse(calendar.isFree(13, 17));
+        assertEquals(2, calendar.gapBefore(15));
+        assertEquals(1, calendar.gapAfter(15));
+    }
+
+    @Test
+    void addAndRemoveReportWhetherTheStayChanged() {
+        RoomCalendar calendar = new RoomCalendar();
+
+        assertTrue(calendar.add(1, 10, 13));
+        assertFalse(calendar.add(1, 10, 13));
+        assertFalse(calendar.add(2, 10, 10));
+        assertTrue(calendar.remove(1, 10, 13));
+        assertFalse(calendar.remove(1, 10, 13));
+        assertTrue(calendar.isFree(10, 13));
+    }
+
+    @Test
+    void legacyOverlapsAreStillDetected() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.add(1, 10, 20);
+        calendar.add(2, 12, 14);
+
+        // The stay starting last before day 19 (12-14) is clear of 16-19, but the long stay is not
+        assertFalse(calendar.isFree(16, 19));
+
+        calendar.remove(2, 12, 14);
+        assertFalse(calendar.isFree(16, 19));
+        assertTrue(calendar.isFree(20, 22));
+    }
+}
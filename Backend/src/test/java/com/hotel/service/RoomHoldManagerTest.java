@@ -0,0 +1,32 @@
+package com.hotel.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RoomHoldManagerTest {
+
+    @Test
+    void sessionLifetimeStaysAboveStripesMinimum() {
+        assertEquals(Duration.ofMinutes(31), manager(30).sessionLifetime());
+        assertEquals(Duration.ofMinutes(45), manager(45).sessionLifetime());
+    }
+
+    @Test
+    void holdMinutesOutsideStripesRangeFailStartup() {
+        assertThrows(IllegalStateException.class, () -> manager(15).init());
+        assertThrows(IllegalStateException.class, () -> manager(24 * 60).init());
+        assertDoesNotThrow(() -> manager(30).init());
+    }
+
+    private static RoomHoldManager manager(long holdMinutes) {
+        RoomHoldManager manager = new RoomHoldManager();
+        ReflectionTestUtils.setField(manager, "holdMinutes", holdMinutes);
+        return manager;
+    }
+}
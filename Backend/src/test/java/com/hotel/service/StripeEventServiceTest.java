@@ -0,0 +1,82 @@
+package com.hotel.service;
+
+import com.hotel.model.StripeEventLog;
+import com.hotel.repository.StripeEventLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StripeEventServiceTest {
+
+    @Mock private StripeEventLogRepository stripeEventLogRepository;
+    @Mock private BookingService bookingService;
+    @Mock private IdempotencyStore idempotencyStore;
+    @Mock private CheckoutSessionCache checkoutSessionCache;
+
+    @InjectMocks private StripeEventService stripeEventService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stripeEventService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stripeEventService, "maxAttempts", 8);
+        ReflectionTestUtils.setField(stripeEventService, "initialBackoffSeconds", 10L);
+        stripeEventService.init();
+    }
+
+    @Test
+    void unparseableDateIsDeadLetteredOnFirstAttempt() {
+        StripeEventLog entry = pending(completedEvent("12", "2026-13-40", "2026-11-03"));
+
+        stripeEventService.process(entry.getId());
+
+        assertEquals("DEAD", entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void unparseableRoomIdIsDeadLetteredOnFirstAttempt() {
+        StripeEventLog entry = pending(completedEvent("room-12", "2026-11-01", "2026-11-03"));
+
+        stripeEventService.process(entry.getId());
+
+        assertEquals("DEAD", entry.getStatus());
+        verifyNoInteractions(bookingService);
+    }
+
+    private StripeEventLog pending(String payload) {
+        StripeEventLog entry = new StripeEventLog();
+        entry.setId(1L);
+        entry.setEventId("evt_1");
+        entry.setEventType("checkout.session.completed");
+        entry.setPayload(payload);
+        entry.setStatus("PENDING");
+        entry.setReceivedAt(LocalDateTime.now());
+        when(stripeEventLogRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(stripeEventLogRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return entry;
+    }
+
+    private static String completedEvent(String roomId, String checkIn, String checkOut) {
+        return """
+                {"id":"evt_1","object":"event","type":"checkout.session.completed",
+                 "data":{"object":{"id":"cs_test_1","object":"checkout.session",
+                   "metadata":{"customerName":"Ada","phoneNumber":"5550100","email":"ada@example.com",
+                     "roomId":"%s","checkInDate":"%s","checkOutDate":"%s"}}}}
+                """.formatted(roomId, checkIn, checkOut);
+    }
+}
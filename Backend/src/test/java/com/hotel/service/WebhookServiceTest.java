@@ -0,0 +1,33 @@
+package com.hotel.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookServiceTest {
+
+    @Test
+    void requestThatCannotBeBuiltGivesThePermitBack() {
+        WebhookService webhookService = new WebhookService();
+        ReflectionTestUtils.setField(webhookService, "webhookUrl", "http://partner example/hooks");
+        ReflectionTestUtils.setField(webhookService, "connectTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(webhookService, "requestTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(webhookService, "maxInFlight", 1);
+        webhookService.init();
+
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<?> result = ReflectionTestUtils.invokeMethod(webhookService, "post", body, 1);
+            assertTrue(result.isCompletedExceptionally());
+        }
+
+        Semaphore inFlight = (Semaphore) ReflectionTestUtils.getField(webhookService, "inFlight");
+        assertEquals(1, inFlight.availablePermits());
+    }
+}